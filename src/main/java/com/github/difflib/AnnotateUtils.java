@@ -0,0 +1,267 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithm;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.MoveDelta;
+import com.github.difflib.patch.Patch;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * Annotates each line of the latest revision of a text with the revision that introduced it, also known as blame.
+ * The owner of each line is carried forward from revision to revision using the positions of the changes between
+ * them, so after the diffs are computed each revision costs a few array copies.
+ */
+public final class AnnotateUtils {
+
+    /**
+     * Annotates the last of the given revisions using the default diff algorithm. The diffs of adjacent revisions are
+     * computed in parallel, bounded by the number of available processors.
+     *
+     * @param revisions the revisions of the text, oldest first. Must not be empty.
+     * @return for each line of the last revision the index of the revision that introduced it
+     * @throws DiffException if a diff could not be computed
+     * @throws InterruptedException if the current thread was interrupted while waiting for the diffs
+     */
+    public static <T> int[] annotate(List<List<T>> revisions) throws DiffException, InterruptedException {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), revisions.size() - 1));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return annotate(revisions, new MyersDiff<>(), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Annotates the last of the given revisions. The diffs of adjacent revisions are computed in parallel using the
+     * given executor, which is not shut down. The diff algorithm is shared by all diffs and must be thread safe.
+     *
+     * @param revisions the revisions of the text, oldest first. Must not be empty.
+     * @param algorithm the diff algorithm
+     * @param executor the executor to compute the diffs on
+     * @return for each line of the last revision the index of the revision that introduced it
+     * @throws DiffException if a diff could not be computed
+     * @throws InterruptedException if the current thread was interrupted while waiting for the diffs
+     */
+    public static <T> int[] annotate(List<List<T>> revisions, DiffAlgorithm<T> algorithm, ExecutorService executor)
+            throws DiffException, InterruptedException {
+        if (revisions.isEmpty()) {
+            throw new IllegalArgumentException("revisions must not be empty");
+        }
+        List<Future<List<Change>>> diffs = new ArrayList<>(revisions.size() - 1);
+        for (int i = 1; i < revisions.size(); i++) {
+            List<T> original = revisions.get(i - 1);
+            List<T> revised = revisions.get(i);
+            diffs.add(executor.submit(() -> algorithm.diff(original, revised, null)));
+        }
+        try {
+            int[] owners = new int[revisions.get(0).size()];
+            for (int i = 1; i < revisions.size(); i++) {
+                List<Change> changes;
+                try {
+                    // the algorithms do not guarantee any order of the changes
+                    changes = new ArrayList<>(diffs.get(i - 1).get());
+                    changes.sort(comparingInt(change -> change.startOriginal));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof DiffException) {
+                        throw (DiffException) e.getCause();
+                    }
+                    throw new IllegalStateException("computing a diff failed unexpectedly", e.getCause());
+                }
+                int[] next = new int[revisions.get(i).size()];
+                int originalPos = 0;
+                int revisedPos = 0;
+                for (Change change : changes) {
+                    System.arraycopy(owners, originalPos, next, revisedPos, change.startOriginal - originalPos);
+                    Arrays.fill(next, change.startRevised, change.endRevised, i);
+                    originalPos = change.endOriginal;
+                    revisedPos = change.endRevised;
+                }
+                System.arraycopy(owners, originalPos, next, revisedPos, owners.length - originalPos);
+                owners = next;
+            }
+            return owners;
+        } finally {
+            for (Future<List<Change>> diff : diffs) {
+                diff.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Annotates the text produced by applying the given patches one after another to the base text. No diff is needed,
+     * the positions of the deltas are used directly. Revision 0 stands for the base text and revision i for the text
+     * produced by the i-th patch. Moved lines keep the revision that introduced them.
+     * <p>
+     * The text is kept as runs of lines having the same owner in a tree ordered by position, so each delta is spliced
+     * in at logarithmic cost and a long history of small edits does not copy the whole text per patch. Only moves copy
+     * the runs they cover.
+     *
+     * @param baseSize the number of lines of the base text
+     * @param patches the patches, each based on the text produced by the previous one
+     * @return for each line of the final text the index of the revision that introduced it
+     */
+    public static <T> int[] annotate(int baseSize, List<Patch<T>> patches) {
+        Random random = new Random(baseSize);
+        Run runs = baseSize > 0 ? new Run(0, baseSize, random.nextInt()) : null;
+        for (int i = 0; i < patches.size(); i++) {
+            List<MoveDelta<T>> moves = new ArrayList<>();
+            List<Run> movedRuns = new ArrayList<>();
+            for (Delta<T> delta : patches.get(i).getDeltas()) {
+                if (delta instanceof MoveDelta) {
+                    Run[] before = Run.split(runs, delta.getOriginal().getPosition());
+                    Run[] moved = Run.split(before[1], delta.getOriginal().size());
+                    moves.add((MoveDelta<T>) delta);
+                    movedRuns.add(Run.copy(moved[0]));
+                    runs = Run.merge(before[0], Run.merge(moved[0], moved[1]));
+                }
+            }
+
+            int shift = 0;
+            for (Delta<T> delta : patches.get(i).getDeltasWithoutMoves(true)) {
+                Run[] before = Run.split(runs, delta.getOriginal().getPosition() + shift);
+                Run[] removed = Run.split(before[1], delta.getOriginal().size());
+                int added = delta.getRevised().size();
+                Run inserted = added > 0 ? new Run(i + 1, added, random.nextInt()) : null;
+                runs = Run.merge(before[0], Run.merge(inserted, removed[1]));
+                shift += added - delta.getOriginal().size();
+            }
+
+            for (int j = 0; j < moves.size(); j++) {
+                Run[] before = Run.split(runs, moves.get(j).getRevised().getPosition());
+                Run[] replaced = Run.split(before[1], moves.get(j).getRevised().size());
+                runs = Run.merge(before[0], Run.merge(movedRuns.get(j), replaced[1]));
+            }
+        }
+
+        int[] owners = new int[Run.size(runs)];
+        int position = 0;
+        Deque<Run> path = new ArrayDeque<>();
+        for (Run run = runs; run != null || !path.isEmpty(); run = run.right) {
+            for (; run != null; run = run.left) {
+                path.push(run);
+            }
+            run = path.pop();
+            Arrays.fill(owners, position, position + run.length, run.owner);
+            position += run.length;
+        }
+        return owners;
+    }
+
+    /**
+     * A run of lines introduced by the same revision, the node of a treap keyed implicitly by the position of the run.
+     */
+    private static final class Run {
+
+        private final int owner;
+        private final int priority;
+        private int length;
+        private int size;
+        private Run left;
+        private Run right;
+
+        private Run(int owner, int length, int priority) {
+            this.owner = owner;
+            this.length = length;
+            this.priority = priority;
+            this.size = length;
+        }
+
+        private static int size(Run run) {
+            return run == null ? 0 : run.size;
+        }
+
+        private void update() {
+            size = size(left) + length + size(right);
+        }
+
+        /**
+         * Splits the runs into the first lines and the rest, cutting a run if needed.
+         */
+        private static Run[] split(Run run, int lines) {
+            if (run == null) {
+                return new Run[]{null, null};
+            }
+            int leftSize = size(run.left);
+            if (lines <= leftSize) {
+                Run[] parts = split(run.left, lines);
+                run.left = parts[1];
+                run.update();
+                return new Run[]{parts[0], run};
+            }
+            if (lines >= leftSize + run.length) {
+                Run[] parts = split(run.right, lines - leftSize - run.length);
+                run.right = parts[0];
+                run.update();
+                return new Run[]{run, parts[1]};
+            }
+            // the tail takes the priority of the run, which is not below any of its new children
+            Run tail = new Run(run.owner, leftSize + run.length - lines, run.priority);
+            tail.right = run.right;
+            tail.update();
+            run.length = lines - leftSize;
+            run.right = null;
+            run.update();
+            return new Run[]{run, tail};
+        }
+
+        private static Run merge(Run first, Run second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            if (first.priority >= second.priority) {
+                first.right = merge(first.right, second);
+                first.update();
+                return first;
+            }
+            second.left = merge(first, second.left);
+            second.update();
+            return second;
+        }
+
+        private static Run copy(Run run) {
+            if (run == null) {
+                return null;
+            }
+            Run copy = new Run(run.owner, run.length, run.priority);
+            copy.left = copy(run.left);
+            copy.right = copy(run.right);
+            copy.size = run.size;
+            return copy;
+        }
+    }
+
+    private AnnotateUtils() {
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.patch.ChangeDelta;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.DeleteDelta;
+import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.InsertDelta;
+import com.github.difflib.patch.MoveDelta;
+import com.github.difflib.patch.Patch;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of patches of text lines. In contrast to the unified diff format it contains no context
+ * lines, needs no original text to be generated and is read back without any text parsing.
+ *
+ * <p>
+ * The encoding starts with the magic bytes {@code JDP}, a version byte, a flags byte and the number of deltas as
+ * varint. If the patch was encoded with an index, a table of fixed size entries follows, holding the original position
+ * and the relative offset of each delta. Each delta is encoded as a type tag, its original position, the difference
+ * of its revised to its original position and the original and revised lines. Lines are encoded as varint length
+ * followed by the UTF-8 bytes. A move stores its lines only once, followed by its target position within the original
+ * and the difference of its source position within the revised text to it.
+ * </p>
+ */
+public final class BinaryPatchUtils {
+
+    private static final byte[] MAGIC = {'J', 'D', 'P'};
+    private static final byte VERSION = 1;
+    private static final int FLAG_INDEXED = 1;
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private static final byte TAG_CHANGE = 0;
+    private static final byte TAG_DELETE = 1;
+    private static final byte TAG_INSERT = 2;
+    private static final byte TAG_MOVE = 3;
+
+    /**
+     * Encodes the patch into a new buffer.
+     *
+     * @param patch the patch to encode
+     * @param indexed if an index should be written to allow {@link #decodeDeltaAt(ByteBuffer, int)}
+     * @return the buffer containing the encoded patch, ready to be read
+     */
+    public static ByteBuffer encode(Patch<String> patch, boolean indexed) {
+        EncodedPatch encoded = new EncodedPatch(patch, indexed);
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.size());
+        encoded.writeTo(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the patch into the given buffer, starting at its current position.
+     *
+     * @param patch the patch to encode
+     * @param indexed if an index should be written to allow {@link #decodeDeltaAt(ByteBuffer, int)}
+     * @param target the buffer to write to
+     * @throws java.nio.BufferOverflowException if the remaining space of the buffer is too small
+     */
+    public static void encode(Patch<String> patch, boolean indexed, ByteBuffer target) {
+        new EncodedPatch(patch, indexed).writeTo(target);
+    }
+
+    /**
+     * Decodes a patch from the given buffer, starting at its current position. The position of the buffer is advanced
+     * behind the patch.
+     *
+     * @param buffer the buffer to read from
+     * @return the decoded patch
+     */
+    public static Patch<String> decode(ByteBuffer buffer) {
+        int flags = readHeader(buffer);
+        int deltaCount = readVarint(buffer);
+        if ((flags & FLAG_INDEXED) != 0) {
+            buffer.position(buffer.position() + deltaCount * INDEX_ENTRY_SIZE);
+        }
+        Patch<String> patch = new Patch<>(deltaCount);
+        for (int i = 0; i < deltaCount; i++) {
+            patch.addDelta(readDelta(buffer));
+        }
+        return patch;
+    }
+
+    /**
+     * Decodes only the delta touching the given original line out of an indexed encoding. A delta touches a line if its
+     * original chunk contains the line or if it inserts lines in front of it. The position of the buffer is not
+     * changed.
+     *
+     * @param buffer the buffer containing the indexed encoding at its current position
+     * @param line the zero based line of the original text
+     * @return the delta touching the line or {@code null} if there is none
+     * @throws IllegalArgumentException if the patch was not encoded with an index
+     */
+    public static Delta<String> decodeDeltaAt(ByteBuffer buffer, int line) {
+        ByteBuffer view = buffer.duplicate();
+        int flags = readHeader(view);
+        if ((flags & FLAG_INDEXED) == 0) {
+            throw new IllegalArgumentException("the binary patch has no index");
+        }
+        int deltaCount = readVarint(view);
+        int indexStart = view.position();
+        int deltasStart = indexStart + deltaCount * INDEX_ENTRY_SIZE;
+
+        // binary search for the last delta starting at or before the line
+        int low = 0;
+        int high = deltaCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (view.getInt(indexStart + mid * INDEX_ENTRY_SIZE) <= line) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        view.position(deltasStart + view.getInt(indexStart + found * INDEX_ENTRY_SIZE + 4));
+        Delta<String> delta = readDelta(view);
+        Chunk<String> original = delta.getOriginal();
+        if (line < original.getPosition() + Math.max(original.size(), 1)) {
+            return delta;
+        }
+        return null;
+    }
+
+    private static int readHeader(ByteBuffer buffer) {
+        for (byte magic : MAGIC) {
+            if (buffer.get() != magic) {
+                throw new IllegalArgumentException("not a binary patch");
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported binary patch version " + version);
+        }
+        return buffer.get();
+    }
+
+    private static Delta<String> readDelta(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        int originalPosition = readVarint(buffer);
+        int revisedPosition = originalPosition + decodeZigZag(readVarint(buffer));
+        Chunk<String> original = new Chunk<>(originalPosition, readLines(buffer));
+        if (tag == TAG_MOVE) {
+            int originalTargetPosition = readVarint(buffer);
+            int revisedSourcePosition = originalTargetPosition + decodeZigZag(readVarint(buffer));
+            return new MoveDelta<>(original, new Chunk<>(revisedPosition, original.getLines()),
+                    originalTargetPosition, revisedSourcePosition);
+        }
+        Chunk<String> revised = new Chunk<>(revisedPosition, readLines(buffer));
+        switch (tag) {
+            case TAG_CHANGE:
+                return new ChangeDelta<>(original, revised);
+            case TAG_DELETE:
+                return new DeleteDelta<>(original, revised);
+            case TAG_INSERT:
+                return new InsertDelta<>(original, revised);
+            default:
+                throw new IllegalArgumentException("unknown delta type tag " + tag);
+        }
+    }
+
+    private static List<String> readLines(ByteBuffer buffer) {
+        int count = readVarint(buffer);
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = readVarint(buffer);
+            String line;
+            if (buffer.hasArray()) {
+                line = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                line = new String(bytes, StandardCharsets.UTF_8);
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    static void writeVarint(ByteBuffer buffer, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        int remaining = value >>> 7;
+        while (remaining != 0) {
+            size++;
+            remaining >>>= 7;
+        }
+        return size;
+    }
+
+    private static int encodeZigZag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    private static int decodeZigZag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * A patch prepared for encoding. The lines are converted to UTF-8 once to compute the size of the encoding and
+     * to write it.
+     */
+    private static final class EncodedPatch {
+
+        private final List<Delta<String>> deltas;
+        private final boolean indexed;
+        private final List<byte[][]> originalLines;
+        private final List<byte[][]> revisedLines;
+        private final int[] deltaSizes;
+        private int size;
+
+        EncodedPatch(Patch<String> patch, boolean indexed) {
+            this.deltas = patch.getDeltas();
+            this.indexed = indexed;
+            this.originalLines = new ArrayList<>(deltas.size());
+            this.revisedLines = new ArrayList<>(deltas.size());
+            this.deltaSizes = new int[deltas.size()];
+            size = MAGIC.length + 2 + varintSize(deltas.size());
+            if (indexed) {
+                size += deltas.size() * INDEX_ENTRY_SIZE;
+            }
+            for (int i = 0; i < deltas.size(); i++) {
+                Delta<String> delta = deltas.get(i);
+                byte[][] original = toBytes(delta.getOriginal().getLines());
+                originalLines.add(original);
+                deltaSizes[i] = 1 + varintSize(delta.getOriginal().getPosition())
+                        + varintSize(encodeZigZag(delta.getRevised().getPosition() - delta.getOriginal().getPosition()))
+                        + linesSize(original);
+                if (delta instanceof MoveDelta) {
+                    MoveDelta<String> move = (MoveDelta<String>) delta;
+                    revisedLines.add(null);
+                    deltaSizes[i] += varintSize(move.getOriginalTargetPosition())
+                            + varintSize(encodeZigZag(move.getRevisedSourcePosition() - move.getOriginalTargetPosition()));
+                } else {
+                    byte[][] revised = toBytes(delta.getRevised().getLines());
+                    revisedLines.add(revised);
+                    deltaSizes[i] += linesSize(revised);
+                }
+                size += deltaSizes[i];
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(MAGIC);
+            buffer.put(VERSION);
+            buffer.put((byte) (indexed ? FLAG_INDEXED : 0));
+            writeVarint(buffer, deltas.size());
+            if (indexed) {
+                int offset = 0;
+                for (int i = 0; i < deltas.size(); i++) {
+                    buffer.putInt(deltas.get(i).getOriginal().getPosition());
+                    buffer.putInt(offset);
+                    offset += deltaSizes[i];
+                }
+            }
+            for (int i = 0; i < deltas.size(); i++) {
+                Delta<String> delta = deltas.get(i);
+                buffer.put(tagOf(delta));
+                writeVarint(buffer, delta.getOriginal().getPosition());
+                writeVarint(buffer, encodeZigZag(delta.getRevised().getPosition() - delta.getOriginal().getPosition()));
+                writeLines(buffer, originalLines.get(i));
+                if (delta instanceof MoveDelta) {
+                    MoveDelta<String> move = (MoveDelta<String>) delta;
+                    writeVarint(buffer, move.getOriginalTargetPosition());
+                    writeVarint(buffer, encodeZigZag(move.getRevisedSourcePosition() - move.getOriginalTargetPosition()));
+                } else {
+                    writeLines(buffer, revisedLines.get(i));
+                }
+            }
+        }
+
+        private static byte tagOf(Delta<String> delta) {
+            switch (delta.getType()) {
+                case CHANGE:
+                    return TAG_CHANGE;
+                case DELETE:
+                    return TAG_DELETE;
+                case INSERT:
+                    return TAG_INSERT;
+                case MOVE:
+                    return TAG_MOVE;
+                default:
+                    throw new IllegalArgumentException("delta type " + delta.getType() + " can not be encoded");
+            }
+        }
+
+        private static byte[][] toBytes(List<String> lines) {
+            byte[][] bytes = new byte[lines.size()][];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = lines.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+            return bytes;
+        }
+
+        private static int linesSize(byte[][] lines) {
+            int linesSize = varintSize(lines.length);
+            for (byte[] line : lines) {
+                linesSize += varintSize(line.length) + line.length;
+            }
+            return linesSize;
+        }
+
+        private static void writeLines(ByteBuffer buffer, byte[][] lines) {
+            writeVarint(buffer, lines.length);
+            for (byte[] line : lines) {
+                writeVarint(buffer, line.length);
+                buffer.put(line);
+            }
+        }
+    }
+
+    private BinaryPatchUtils() {
+    }
+}
@@ -24,8 +24,10 @@ import com.github.difflib.algorithm.DiffAlgorithmListener;
 import com.github.difflib.algorithm.DiffException;
 import com.github.difflib.algorithm.myers.MyersDiff;
 import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.MoveDetector;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
+import com.github.difflib.similarity.SimilaritySketch;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -115,6 +117,39 @@ public final class DiffUtils {
          return diff(original, revised, algorithm, null);
      }
 
+    /**
+     * Computes the difference between the original and revised list of elements with default diff algorithm and
+     * reports blocks of at least {@code minMoveSize} elements moved within the text as moves.
+     *
+     * @param original The original text. Must not be {@code null}.
+     * @param revised The revised text. Must not be {@code null}.
+     * @param minMoveSize the minimal number of elements of a moved block
+     * @return The patch describing the difference between the original and revised sequences. Never {@code null}.
+     * @see MoveDetector
+     */
+    public static <T> Patch<T> diffWithMoves(List<T> original, List<T> revised, int minMoveSize) throws DiffException {
+        Objects.requireNonNull(original, "original must not be null");
+        Objects.requireNonNull(revised, "revised must not be null");
+
+        return MoveDetector.generate(original, revised, new MyersDiff<T>().diff(original, revised, null), minMoveSize);
+    }
+
+    /**
+     * Estimates the similarity of the given texts, as the Jaccard similarity of their sets of lines, without computing
+     * their difference. This takes time linear in the size of the texts and is meant as cheap pre-filter. To compare a
+     * text with many others, create its {@link SimilaritySketch} once instead.
+     *
+     * @param original The original text. Must not be {@code null}.
+     * @param revised The revised text. Must not be {@code null}.
+     * @return the estimated similarity between 0 and 1, with a standard error of at most about 0.045
+     */
+    public static double estimateSimilarity(List<String> original, List<String> revised) {
+        Objects.requireNonNull(original, "original must not be null");
+        Objects.requireNonNull(revised, "revised must not be null");
+
+        return SimilaritySketch.of(original).estimateSimilarity(SimilaritySketch.of(revised));
+    }
+
     /**
      * Computes the difference between the given texts inline. This one uses the "trick" to make out of texts lists of
      * characters, like DiffRowGenerator does and merges those changes at the end together again.
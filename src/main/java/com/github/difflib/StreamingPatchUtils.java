@@ -0,0 +1,250 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Applies and restores patches of text lines while streaming the text from a source to a target. In contrast to
+ * {@link Patch#applyTo(java.util.List)} the text is never held in memory as a whole, only the lines of the current
+ * delta are. Lines are read using any of the usual line terminators. Copied lines keep their own terminator, lines of
+ * a delta are terminated like the line read before them, and the text ends with a terminator only if the source did.
+ */
+public final class StreamingPatchUtils {
+
+    /**
+     * Apply the patch to the text read from the source and write the patched text to the target. The target is
+     * flushed but not closed.
+     *
+     * @param patch the patch to apply
+     * @param source the text to patch
+     * @param target the writer receiving the patched text
+     * @throws PatchFailedException if the text does not match the patch. The target may hold partial output then.
+     * @throws IOException if reading or writing fails
+     */
+    public static void applyTo(Patch<String> patch, Reader source, Writer target) throws PatchFailedException, IOException {
+        process(patch, true, source, target);
+    }
+
+    /**
+     * Apply the patch to the text read from the source channel and write the patched text to the target channel. The
+     * channels are not closed.
+     *
+     * @param patch the patch to apply
+     * @param source the text to patch
+     * @param target the channel receiving the patched text
+     * @param charset the charset of the text
+     * @throws PatchFailedException if the text does not match the patch. The target may hold partial output then.
+     * @throws IOException if reading or writing fails
+     */
+    public static void applyTo(Patch<String> patch, ReadableByteChannel source, WritableByteChannel target,
+            Charset charset) throws PatchFailedException, IOException {
+        process(patch, true, Channels.newReader(source, charset.newDecoder(), -1),
+                Channels.newWriter(target, charset.newEncoder(), -1));
+    }
+
+    /**
+     * Apply the patch to the given file. The patched text is written to a temporary file within the same directory,
+     * which replaces the given file using an atomic rename. The POSIX permissions of the file are kept, where the file
+     * system supports them. If the patch fails the file stays untouched.
+     *
+     * @param patch the patch to apply
+     * @param file the file to patch
+     * @param charset the charset of the file
+     * @throws PatchFailedException if the text does not match the patch
+     * @throws IOException if reading or writing fails or the file system does not support atomic renames
+     */
+    public static void applyInPlace(Patch<String> patch, Path file, Charset charset) throws PatchFailedException, IOException {
+        Path absoluteFile = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+        try {
+            try (Reader source = Files.newBufferedReader(absoluteFile, charset);
+                    Writer target = Files.newBufferedWriter(temp, charset)) {
+                process(patch, true, source, target);
+            }
+            if (Files.getFileAttributeView(absoluteFile, PosixFileAttributeView.class) != null) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(absoluteFile));
+            }
+            Files.move(temp, absoluteFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Restore the text read from the source to the original and write it to the target. Opposite to applyTo(). The
+     * target is flushed but not closed.
+     *
+     * @param patch the patch to restore
+     * @param source the patched text
+     * @param target the writer receiving the original text
+     * @throws PatchFailedException if the text does not match the patch. The target may hold partial output then.
+     * @throws IOException if reading or writing fails
+     */
+    public static void restore(Patch<String> patch, Reader source, Writer target) throws PatchFailedException, IOException {
+        process(patch, false, source, target);
+    }
+
+    private static void process(Patch<String> patch, boolean forward, Reader source, Writer target)
+            throws PatchFailedException, IOException {
+        LineReader reader = new LineReader(source);
+        LineWriter writer = new LineWriter(target instanceof BufferedWriter ? target : new BufferedWriter(target));
+        int line = 0;
+        for (Delta<String> delta : patch.getDeltasWithoutMoves(forward)) {
+            Chunk<String> from = forward ? delta.getOriginal() : delta.getRevised();
+            Chunk<String> to = forward ? delta.getRevised() : delta.getOriginal();
+            for (; line < from.getPosition(); line++) {
+                String text = reader.readLine();
+                if (text == null) {
+                    throw new PatchFailedException("Incorrect Chunk: the position of chunk > target size");
+                }
+                writer.writeLine(text, reader.terminator, reader.separator());
+            }
+            for (String expected : from.getLines()) {
+                String text = reader.readLine();
+                if (!expected.equals(text)) {
+                    throw new PatchFailedException("Incorrect Chunk: the chunk content doesn't match the target");
+                }
+                line++;
+            }
+            for (String text : to.getLines()) {
+                writer.writeLine(text, reader.separator(), reader.separator());
+            }
+        }
+        for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+            writer.writeLine(text, reader.terminator, reader.separator());
+        }
+        writer.finish(!"".equals(reader.terminator));
+    }
+
+    /**
+     * Reads lines like {@link java.io.BufferedReader#readLine()}, but keeps the terminator of the line read last.
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        /**
+         * The terminator of the line read last, empty for an unterminated last line and null before the first line.
+         */
+        private String terminator;
+        private String separator = "\n";
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder text = new StringBuilder();
+            while (position < limit || fill()) {
+                char c = buffer[position++];
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+                        position++;
+                        terminator = "\r\n";
+                    } else {
+                        terminator = String.valueOf(c);
+                    }
+                    separator = terminator;
+                    return text.toString();
+                }
+                text.append(c);
+            }
+            if (text.length() == 0) {
+                return null;
+            }
+            terminator = "";
+            return text.toString();
+        }
+
+        /**
+         * Returns the terminator of the last terminated line, used for lines of deltas. Before the first line is read
+         * the first terminator of the buffered text is looked up.
+         */
+        private String separator() throws IOException {
+            if (terminator == null && (position < limit || fill())) {
+                for (int i = position; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        return "\n";
+                    }
+                    if (buffer[i] == '\r') {
+                        return i + 1 < limit && buffer[i + 1] == '\n' ? "\r\n" : "\r";
+                    }
+                }
+            }
+            return separator;
+        }
+
+        private boolean fill() throws IOException {
+            position = 0;
+            limit = Math.max(reader.read(buffer), 0);
+            return limit > 0;
+        }
+    }
+
+    /**
+     * Writes lines holding back the terminator of the last one, which is dropped if the source was not terminated.
+     */
+    private static final class LineWriter {
+
+        private final Writer writer;
+        private String pending;
+
+        private LineWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * @param text the line
+         * @param terminator the terminator of the line, empty if it was the unterminated last line of the source
+         * @param separator the terminator used instead if another line follows an unterminated one
+         */
+        private void writeLine(String text, String terminator, String separator) throws IOException {
+            if (pending != null) {
+                writer.write(pending);
+            }
+            writer.write(text);
+            pending = terminator.isEmpty() ? separator : terminator;
+        }
+
+        private void finish(boolean terminated) throws IOException {
+            if (terminated && pending != null) {
+                writer.write(pending);
+            }
+            writer.flush();
+        }
+    }
+
+    private StreamingPatchUtils() {
+    }
+}
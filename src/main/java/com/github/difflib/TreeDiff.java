@@ -0,0 +1,420 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.similarity.FileRename;
+import com.github.difflib.similarity.RenameDetector;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Writes a git compatible unified diff of two directory trees. Files are paired by their path relative to the roots.
+ * Files are compared by content first, so unchanged files are skipped without splitting them into lines.
+ * The remaining files are diffed in parallel, while the output is written in the order of the paths.
+ *
+ * <p>
+ * The {@link #main(String[])} method offers this as command line tool, which also diffs a batch of pairs read from the
+ * standard input within one JVM.
+ * </p>
+ */
+public final class TreeDiff {
+
+    private static final String DEV_NULL = "/dev/null";
+    private static final int BINARY_CHECK_SIZE = 8000;
+    /**
+     * Written by git behind a last line without line terminator.
+     */
+    private static final String NO_NEWLINE_MARKER = "\n\\ No newline at end of file";
+
+    /**
+     * Writes the diff of the two directory trees, using as many threads as processors are available.
+     *
+     * @param originalRoot the root of the original tree
+     * @param revisedRoot the root of the revised tree
+     * @param contextSize number of lines of context output around each difference in a file
+     * @param out the output, for instance a {@link java.io.Writer}
+     * @return the number of differing files
+     * @throws IOException if reading a file or writing to the output fails
+     */
+    public static int diff(Path originalRoot, Path revisedRoot, int contextSize, Appendable out)
+            throws IOException, DiffException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return diff(originalRoot, revisedRoot, contextSize, executor, out);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the diff of the two directory trees. Each pair of files is compared and diffed by a task of the given
+     * executor. The output is ordered by the relative paths of the files.
+     *
+     * @param originalRoot the root of the original tree
+     * @param revisedRoot the root of the revised tree
+     * @param contextSize number of lines of context output around each difference in a file
+     * @param executor the executor running the comparisons, it is not shut down
+     * @param out the output, for instance a {@link java.io.Writer}
+     * @return the number of differing files
+     * @throws IOException if reading a file or writing to the output fails
+     */
+    public static int diff(Path originalRoot, Path revisedRoot, int contextSize, ExecutorService executor,
+            Appendable out) throws IOException, DiffException, InterruptedException {
+        return diff(originalRoot, revisedRoot, contextSize, null, executor, out);
+    }
+
+    /**
+     * Writes the diff of the two directory trees, detecting renamed files. A text file only existing in the original
+     * tree and a text file only existing in the revised tree, found similar by the detector, are written as rename.
+     *
+     * @param originalRoot the root of the original tree
+     * @param revisedRoot the root of the revised tree
+     * @param contextSize number of lines of context output around each difference in a file
+     * @param renameDetector the detector of renamed files, or {@code null} to write them as deleted and new files
+     * @param executor the executor running the comparisons, it is not shut down
+     * @param out the output, for instance a {@link java.io.Writer}
+     * @return the number of differing files
+     * @throws IOException if reading a file or writing to the output fails
+     */
+    public static int diff(Path originalRoot, Path revisedRoot, int contextSize, RenameDetector renameDetector,
+            ExecutorService executor, Appendable out) throws IOException, DiffException, InterruptedException {
+        List<String> originalPaths = listFiles(originalRoot);
+        List<String> revisedPaths = listFiles(revisedRoot);
+        Map<String, Callable<String>> tasks = new TreeMap<>();
+        for (String path : originalPaths) {
+            tasks.put(path, () -> diffFile(originalRoot.resolve(path), revisedRoot.resolve(path), path, contextSize));
+        }
+        for (String path : revisedPaths) {
+            tasks.put(path, () -> diffFile(originalRoot.resolve(path), revisedRoot.resolve(path), path, contextSize));
+        }
+        if (renameDetector != null) {
+            Map<String, List<String>> removed = readTextFiles(originalRoot, originalPaths, new HashSet<>(revisedPaths));
+            Map<String, List<String>> added = readTextFiles(revisedRoot, revisedPaths, new HashSet<>(originalPaths));
+            for (FileRename rename : renameDetector.detect(removed, added)) {
+                tasks.remove(rename.getFromPath());
+                tasks.put(rename.getToPath(), () -> renameSection(rename, originalRoot.resolve(rename.getFromPath()),
+                        revisedRoot.resolve(rename.getToPath()), removed.get(rename.getFromPath()),
+                        added.get(rename.getToPath()), contextSize));
+            }
+        }
+
+        List<Future<String>> sections = new ArrayList<>(tasks.size());
+        for (Callable<String> task : tasks.values()) {
+            sections.add(executor.submit(task));
+        }
+        int count = 0;
+        try {
+            for (Future<String> section : sections) {
+                String text = section.get();
+                if (text != null) {
+                    out.append(text);
+                    count++;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof DiffException) {
+                throw (DiffException) e.getCause();
+            }
+            throw new IllegalStateException("comparing files failed unexpectedly", e.getCause());
+        } finally {
+            for (Future<String> section : sections) {
+                section.cancel(true);
+            }
+        }
+        return count;
+    }
+
+    private static List<String> listFiles(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        List<String> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .forEach(file -> paths.add(root.relativize(file).toString().replace(File.separatorChar, '/')));
+        }
+        return paths;
+    }
+
+    /**
+     * Reads the lines of the text files of the given paths, which are not contained in {@code excluded}.
+     */
+    private static Map<String, List<String>> readTextFiles(Path root, List<String> paths, Set<String> excluded)
+            throws IOException {
+        Map<String, List<String>> files = new HashMap<>();
+        for (String path : paths) {
+            if (!excluded.contains(path)) {
+                byte[] bytes = Files.readAllBytes(root.resolve(path));
+                if (!isBinary(bytes)) {
+                    files.put(path, toLines(bytes));
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String renameSection(FileRename rename, Path original, Path revised, List<String> originalLines,
+            List<String> revisedLines, int contextSize) throws IOException, DiffException {
+        StringBuilder section = new StringBuilder();
+        section.append("diff --git a/").append(rename.getFromPath()).append(" b/").append(rename.getToPath())
+                .append('\n');
+        appendModeChange(section, original, revised);
+        section.append("similarity index ").append((int) (rename.getSimilarity() * 100)).append("%\n");
+        section.append("rename from ").append(rename.getFromPath()).append('\n');
+        section.append("rename to ").append(rename.getToPath()).append('\n');
+        UnifiedDiffUtils.writeUnifiedDiff("a/" + rename.getFromPath(), "b/" + rename.getToPath(), originalLines,
+                revisedLines, new MyersDiff<String>().diff(originalLines, revisedLines, null), contextSize, section);
+        return section.toString();
+    }
+
+    /**
+     * Compares a pair of files, one of them may be missing.
+     *
+     * @return the section of the diff for the pair, or {@code null} if both files and their modes are equal
+     */
+    private static String diffFile(Path original, Path revised, String path, int contextSize)
+            throws IOException, DiffException {
+        boolean originalExists = Files.isRegularFile(original);
+        boolean revisedExists = Files.isRegularFile(revised);
+        byte[] originalBytes = originalExists ? Files.readAllBytes(original) : new byte[0];
+        byte[] revisedBytes = revisedExists ? Files.readAllBytes(revised) : new byte[0];
+        boolean equalContent = originalExists && revisedExists && Arrays.equals(originalBytes, revisedBytes);
+        if (equalContent && fileMode(original).equals(fileMode(revised))) {
+            return null;
+        }
+        String originalName = originalExists ? "a/" + path : DEV_NULL;
+        String revisedName = revisedExists ? "b/" + path : DEV_NULL;
+
+        StringBuilder section = new StringBuilder();
+        section.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+        if (!originalExists) {
+            section.append("new file mode ").append(fileMode(revised)).append('\n');
+        } else if (!revisedExists) {
+            section.append("deleted file mode ").append(fileMode(original)).append('\n');
+        }
+        boolean modeChanged = originalExists && revisedExists && appendModeChange(section, original, revised);
+        int headerLength = section.length();
+        if (equalContent) {
+            return section.toString();
+        }
+        if (isBinary(originalBytes) || isBinary(revisedBytes)) {
+            section.append("Binary files ").append(originalName).append(" and ").append(revisedName)
+                    .append(" differ\n");
+            return section.toString();
+        }
+
+        List<String> originalLines = toLines(originalBytes);
+        List<String> revisedLines = toLines(revisedBytes);
+        if (!originalExists || !revisedExists) {
+            // git uses a start line of 0 for the missing side
+            List<String> lines = originalExists ? originalLines : revisedLines;
+            if (!lines.isEmpty()) {
+                section.append("--- ").append(originalName).append('\n');
+                section.append("+++ ").append(revisedName).append('\n');
+                section.append(originalExists ? "@@ -1," + lines.size() + " +0,0 @@\n" : "@@ -0,0 +1," + lines.size()
+                        + " @@\n");
+                char prefix = originalExists ? '-' : '+';
+                for (String line : lines) {
+                    section.append(prefix).append(line).append('\n');
+                }
+            }
+            return section.toString();
+        }
+        UnifiedDiffUtils.writeUnifiedDiff(originalName, revisedName, originalLines, revisedLines,
+                new MyersDiff<String>().diff(originalLines, revisedLines, null), contextSize, section);
+        // bytes which are no valid UTF-8 may decode to equal lines
+        return section.length() > headerLength || modeChanged ? section.toString() : null;
+    }
+
+    private static boolean isBinary(byte[] bytes) {
+        for (int i = 0; i < Math.min(bytes.length, BINARY_CHECK_SIZE); i++) {
+            if (bytes[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Git file mode of a regular file, executable if the owner may execute it.
+     */
+    private static String fileMode(Path file) throws IOException {
+        if (Files.getFileAttributeView(file, PosixFileAttributeView.class) != null
+                && Files.getPosixFilePermissions(file).contains(PosixFilePermission.OWNER_EXECUTE)) {
+            return "100755";
+        }
+        return "100644";
+    }
+
+    /**
+     * Writes the old and new mode of a file whose mode changed, as git does.
+     *
+     * @return whether the mode changed
+     */
+    private static boolean appendModeChange(StringBuilder section, Path original, Path revised) throws IOException {
+        String originalMode = fileMode(original);
+        String revisedMode = fileMode(revised);
+        if (originalMode.equals(revisedMode)) {
+            return false;
+        }
+        section.append("old mode ").append(originalMode).append('\n');
+        section.append("new mode ").append(revisedMode).append('\n');
+        return true;
+    }
+
+    /**
+     * Splits the text into lines. A last line without terminator gets the marker git writes behind it appended, so it
+     * differs from the same line with terminator and the marker is written along with the line.
+     */
+    private static List<String> toLines(byte[] bytes) {
+        if (bytes.length == 0) {
+            return Collections.emptyList();
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\n", -1)));
+        int last = lines.size() - 1;
+        if (text.endsWith("\n")) {
+            lines.remove(last);
+        } else {
+            lines.set(last, lines.get(last) + NO_NEWLINE_MARKER);
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the diff of two directories or two files to the standard output.
+     *
+     * <pre>
+     * TreeDiff [-U context] [-M] original revised
+     * TreeDiff [-U context] [-M] --batch
+     * </pre>
+     *
+     * The context size must be a non-negative number. The option {@code -M} enables the detection of renamed files. In batch mode each line of the standard input names a pair of directories or files, separated by a tab. The
+     * exit status is 0 if there are no differences, 1 if there are differences and 2 in case of an error.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int contextSize = 3;
+        RenameDetector renameDetector = null;
+        boolean valid = true;
+        int index = 0;
+        while (index < args.length) {
+            if ("-U".equals(args[index]) && index + 1 < args.length) {
+                try {
+                    contextSize = Integer.parseInt(args[index + 1]);
+                } catch (NumberFormatException e) {
+                    contextSize = -1;
+                }
+                valid &= contextSize >= 0;
+                index += 2;
+            } else if ("-M".equals(args[index])) {
+                renameDetector = new RenameDetector();
+                index++;
+            } else {
+                break;
+            }
+        }
+        boolean batch = args.length == index + 1 && "--batch".equals(args[index]);
+        if (!valid || !batch && args.length != index + 2) {
+            System.err.println("usage: TreeDiff [-U context] [-M] original revised | TreeDiff [-U context] [-M] --batch");
+            System.exit(2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        int status = 0;
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            if (batch) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] pair = line.split("\t");
+                    if (pair.length != 2) {
+                        System.err.println("invalid pair: " + line);
+                        status = 2;
+                        continue;
+                    }
+                    if (diffPair(Paths.get(pair[0]), Paths.get(pair[1]), contextSize, renameDetector, executor, out) > 0
+                            && status == 0) {
+                        status = 1;
+                    }
+                    out.flush();
+                }
+            } else if (diffPair(Paths.get(args[index]), Paths.get(args[index + 1]), contextSize, renameDetector,
+                    executor, out) > 0) {
+                status = 1;
+            }
+            out.flush();
+        } catch (IOException | DiffException | InterruptedException e) {
+            System.err.println(e);
+            status = 2;
+        } finally {
+            executor.shutdownNow();
+        }
+        System.exit(status);
+    }
+
+    private static int diffPair(Path original, Path revised, int contextSize, RenameDetector renameDetector,
+            ExecutorService executor, Writer out) throws IOException, DiffException, InterruptedException {
+        if (Files.isDirectory(original) || Files.isDirectory(revised)) {
+            return diff(original, revised, contextSize, renameDetector, executor, out);
+        }
+        List<String> originalLines = Files.exists(original) ? toLines(Files.readAllBytes(original))
+                : Collections.emptyList();
+        List<String> revisedLines = Files.exists(revised) ? toLines(Files.readAllBytes(revised))
+                : Collections.emptyList();
+        StringBuilder section = new StringBuilder();
+        UnifiedDiffUtils.writeUnifiedDiff(original.toString(), revised.toString(), originalLines, revisedLines,
+                new MyersDiff<String>().diff(originalLines, revisedLines, null), contextSize, section);
+        out.append(section);
+        return section.length() > 0 ? 1 : 0;
+    }
+
+    private TreeDiff() {
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.patch.Patch;
+
+/**
+ * The patch of a single file parsed from a unified diff covering several files.
+ */
+public final class UnifiedDiffFile {
+
+    private final String fromFile;
+    private final String toFile;
+    private final Patch<String> patch;
+
+    public UnifiedDiffFile(String fromFile, String toFile, Patch<String> patch) {
+        this.fromFile = fromFile;
+        this.toFile = toFile;
+        this.patch = patch;
+    }
+
+    /**
+     * @return the name of the original file as given by the diff, like {@code a/src/Main.java} or {@code /dev/null}
+     */
+    public String getFromFile() {
+        return fromFile;
+    }
+
+    /**
+     * @return the name of the revised file as given by the diff, like {@code b/src/Main.java} or {@code /dev/null}
+     */
+    public String getToFile() {
+        return toFile;
+    }
+
+    public Patch<String> getPatch() {
+        return patch;
+    }
+
+    @Override
+    public String toString() {
+        return "UnifiedDiffFile{" + "fromFile=" + fromFile + ", toFile=" + toFile + ", patch=" + patch + '}';
+    }
+}
@@ -15,14 +15,26 @@
  */
 package com.github.difflib;
 
+import com.github.difflib.algorithm.Change;
 import com.github.difflib.patch.ChangeDelta;
 import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.DeleteDelta;
 import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.InsertDelta;
 import com.github.difflib.patch.Patch;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import static java.util.Comparator.comparingInt;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import static java.util.stream.Collectors.toList;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -30,100 +42,329 @@ import java.util.regex.Pattern;
  */
 public final class UnifiedDiffUtils {
 
-    private static final Pattern UNIFIED_DIFF_CHUNK_REGEXP = Pattern
-            .compile("^@@\\s+-(?:(\\d+)(?:,(\\d+))?)\\s+\\+(?:(\\d+)(?:,(\\d+))?)\\s+@@$");
+    private static final String[] GIT_EXTENDED_HEADERS = {"index ", "old mode ", "new mode ", "deleted file mode ",
+        "new file mode ", "similarity index ", "dissimilarity index ", "rename from ", "rename to ", "copy from ",
+        "copy to "};
 
     /**
-     * Parse the given text in unified format and creates the list of deltas for it.
+     * Parse the given text in unified format and creates the list of deltas for it. Like a patch computed by
+     * {@link DiffUtils#diff(List, List)} it contains only the removed and added lines, split at the context lines.
      *
      * @param diff the text in unified format
      * @return the patch with deltas.
+     * @throws IllegalArgumentException if a hunk header is malformed
      */
     public static Patch<String> parseUnifiedDiff(List<String> diff) {
-        boolean inPrelude = true;
-        List<String[]> rawChunk = new ArrayList<>();
         Patch<String> patch = new Patch<>();
-
-        int old_ln = 0;
-        int new_ln = 0;
-        String tag;
-        String rest;
+        DeltaParser parser = new DeltaParser(patch::addDelta);
         for (String line : diff) {
-            // Skip leading lines until after we've seen one starting with '+++'
-            if (inPrelude) {
-                if (line.startsWith("+++")) {
-                    inPrelude = false;
+            parser.parseLine(line);
+        }
+        parser.finish();
+        return patch;
+    }
+
+    /**
+     * Parse the text in unified format read from the given reader. Each delta is passed to the consumer as soon as its
+     * hunk is complete, so only the lines of the current hunk are held in memory.
+     *
+     * @param reader the reader providing the text in unified format
+     * @param consumer the consumer receiving the deltas
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a hunk header is malformed
+     */
+    public static void parseUnifiedDiff(Reader reader, Consumer<Delta<String>> consumer) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        DeltaParser parser = new DeltaParser(consumer);
+        String line;
+        while ((line = in.readLine()) != null) {
+            parser.parseLine(line);
+        }
+        parser.finish();
+    }
+
+    /**
+     * Parse the UTF-8 encoded text in unified format contained in the given buffer, from its position to its limit.
+     * Lines are decoded one at a time, the buffer itself is not modified. Each delta is passed to the consumer as soon
+     * as its hunk is complete.
+     *
+     * @param buffer the buffer containing the text in unified format, for instance a mapped patch file
+     * @param consumer the consumer receiving the deltas
+     * @throws IllegalArgumentException if a hunk header is malformed
+     */
+    public static void parseUnifiedDiff(ByteBuffer buffer, Consumer<Delta<String>> consumer) {
+        DeltaParser parser = new DeltaParser(consumer);
+        byte[] bytes = new byte[256];
+        int length = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                parser.parseLine(decodeLine(bytes, length));
+                length = 0;
+            } else {
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, length * 2);
                 }
-                continue;
+                bytes[length++] = b;
             }
-            Matcher m = UNIFIED_DIFF_CHUNK_REGEXP.matcher(line);
-            if (m.find()) {
-                // Process the lines in the previous chunk
-                if (!rawChunk.isEmpty()) {
-                    List<String> oldChunkLines = new ArrayList<>();
-                    List<String> newChunkLines = new ArrayList<>();
-
-                    for (String[] raw_line : rawChunk) {
-                        tag = raw_line[0];
-                        rest = raw_line[1];
-                        if (" ".equals(tag) || "-".equals(tag)) {
-                            oldChunkLines.add(rest);
-                        }
-                        if (" ".equals(tag) || "+".equals(tag)) {
-                            newChunkLines.add(rest);
-                        }
-                    }
-                    patch.addDelta(new ChangeDelta<>(new Chunk<>(
-                            old_ln - 1, oldChunkLines), new Chunk<>(
-                            new_ln - 1, newChunkLines)));
-                    rawChunk.clear();
-                }
-                // Parse the @@ header
-                old_ln = m.group(1) == null ? 1 : Integer.parseInt(m.group(1));
-                new_ln = m.group(3) == null ? 1 : Integer.parseInt(m.group(3));
+        }
+        if (length > 0) {
+            parser.parseLine(decodeLine(bytes, length));
+        }
+        parser.finish();
+    }
+
+    private static String decodeLine(byte[] bytes, int length) {
+        int end = length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
 
-                if (old_ln == 0) {
-                    old_ln += 1;
+    /**
+     * Parse the given text in unified format covering several files, like the output of {@code git diff}. The text is
+     * split into the sections of the files, each starting with a {@code diff --git} line or with a {@code ---} line
+     * directly followed by a {@code +++} line. The lines of each hunk are counted using its header, so removed lines
+     * looking like a file header do not split a section. A {@code diff --git} section without hunks, like one of a binary
+     * file, ends with the first line not belonging to its extended header. Afterwards the sections are parsed in parallel.
+     *
+     * @param diff the text in unified format
+     * @return the patches of the files, in the order of the text
+     * @throws IllegalArgumentException if a hunk header is malformed
+     */
+    public static List<UnifiedDiffFile> parseUnifiedDiffFiles(List<String> diff) {
+        List<Integer> starts = new ArrayList<>();
+        HunkHeader header = new HunkHeader();
+        int oldRemaining = 0;
+        int newRemaining = 0;
+        boolean inGitHeader = false;
+        for (int i = 0; i < diff.size(); i++) {
+            String line = diff.get(i);
+            if (oldRemaining > 0 || newRemaining > 0) {
+                if (line.isEmpty() || line.charAt(0) == ' ') {
+                    oldRemaining--;
+                    newRemaining--;
+                } else if (line.charAt(0) == '-') {
+                    oldRemaining--;
+                } else if (line.charAt(0) == '+') {
+                    newRemaining--;
                 }
-                if (new_ln == 0) {
-                    new_ln += 1;
+            } else if (line.startsWith("diff --git ")) {
+                starts.add(i);
+                inGitHeader = true;
+            } else if (line.startsWith("--- ") && i + 1 < diff.size() && diff.get(i + 1).startsWith("+++ ")) {
+                if (!inGitHeader) {
+                    starts.add(i);
                 }
+                inGitHeader = false;
             } else {
-                if (line.length() > 0) {
-                    tag = line.substring(0, 1);
-                    rest = line.substring(1);
-                    if (" ".equals(tag) || "+".equals(tag) || "-".equals(tag)) {
-                        rawChunk.add(new String[]{tag, rest});
-                    }
-                } else {
-                    rawChunk.add(new String[]{" ", ""});
+                if (header.parse(line)) {
+                    oldRemaining = header.oldCount;
+                    newRemaining = header.newCount;
                 }
+                inGitHeader = inGitHeader && isGitExtendedHeader(line);
             }
         }
+        starts.add(diff.size());
+        return IntStream.range(0, starts.size() - 1).parallel()
+                .mapToObj(i -> parseFile(diff.subList(starts.get(i), starts.get(i + 1))))
+                .collect(toList());
+    }
+
+    private static boolean isGitExtendedHeader(String line) {
+        for (String prefix : GIT_EXTENDED_HEADERS) {
+            if (line.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static UnifiedDiffFile parseFile(List<String> lines) {
+        String fromFile = null;
+        String toFile = null;
+        Patch<String> patch = new Patch<>();
+        DeltaParser parser = new DeltaParser(patch::addDelta);
+        for (String line : lines) {
+            if (parser.inPrelude) {
+                if (line.startsWith("diff --git ")) {
+                    String names = line.substring("diff --git ".length());
+                    int separator = names.lastIndexOf(" b/");
+                    fromFile = separator < 0 ? names : names.substring(0, separator);
+                    toFile = separator < 0 ? names : names.substring(separator + 1);
+                } else if (line.startsWith("--- ")) {
+                    fromFile = fileName(line);
+                } else if (line.startsWith("+++ ")) {
+                    toFile = fileName(line);
+                }
+            }
+            parser.parseLine(line);
+        }
+        parser.finish();
+        return new UnifiedDiffFile(fromFile, toFile, patch);
+    }
+
+    /**
+     * Extracts the file name of a {@code ---} or {@code +++} line, omitting an appended timestamp.
+     */
+    private static String fileName(String line) {
+        int tab = line.indexOf('\t');
+        return line.substring(4, tab < 0 ? line.length() : tab);
+    }
+
+    /**
+     * Parses the lines of a unified diff one by one. All lines up to the first one starting with {@code +++} are
+     * skipped. Each run of removed and added lines within a hunk becomes a delete, insert or change delta, the context
+     * lines are only counted.
+     */
+    private static final class DeltaParser {
 
-        // Process the lines in the last chunk
-        if (!rawChunk.isEmpty()) {
-            List<String> oldChunkLines = new ArrayList<>();
-            List<String> newChunkLines = new ArrayList<>();
+        private final Consumer<Delta<String>> consumer;
+        private final HunkHeader header = new HunkHeader();
+        private boolean inPrelude = true;
+        private int oldPos;
+        private int newPos;
+        private List<String> removedLines = new ArrayList<>();
+        private List<String> addedLines = new ArrayList<>();
+        private int runOldPos;
+        private int runNewPos;
 
-            for (String[] raw_line : rawChunk) {
-                tag = raw_line[0];
-                rest = raw_line[1];
-                if (" ".equals(tag) || "-".equals(tag)) {
-                    oldChunkLines.add(rest);
+        DeltaParser(Consumer<Delta<String>> consumer) {
+            this.consumer = consumer;
+        }
+
+        void parseLine(String line) {
+            // Skip leading lines until after we've seen one starting with '+++'
+            if (inPrelude) {
+                if (line.startsWith("+++")) {
+                    inPrelude = false;
                 }
-                if (" ".equals(tag) || "+".equals(tag)) {
-                    newChunkLines.add(rest);
+                return;
+            }
+            if (line.startsWith("@@")) {
+                if (!header.parse(line)) {
+                    // its lines would be counted within the previous hunk
+                    throw new IllegalArgumentException("invalid hunk header: " + line);
                 }
+                finish();
+                oldPos = Math.max(header.oldLn, 1) - 1;
+                newPos = Math.max(header.newLn, 1) - 1;
+            } else if (line.isEmpty() || line.charAt(0) == ' ') {
+                finish();
+                oldPos++;
+                newPos++;
+            } else if (line.charAt(0) == '-') {
+                startRun();
+                removedLines.add(line.substring(1));
+                oldPos++;
+            } else if (line.charAt(0) == '+') {
+                startRun();
+                addedLines.add(line.substring(1));
+                newPos++;
             }
+        }
 
-            patch.addDelta(new ChangeDelta<>(new Chunk<>(
-                    old_ln - 1, oldChunkLines), new Chunk<>(new_ln - 1,
-                    newChunkLines)));
-            rawChunk.clear();
+        private void startRun() {
+            if (removedLines.isEmpty() && addedLines.isEmpty()) {
+                runOldPos = oldPos;
+                runNewPos = newPos;
+            }
         }
 
-        return patch;
+        /**
+         * Emits the delta of the current run of removed and added lines, if there is one.
+         */
+        void finish() {
+            if (removedLines.isEmpty() && addedLines.isEmpty()) {
+                return;
+            }
+            Chunk<String> original = new Chunk<>(runOldPos, removedLines);
+            Chunk<String> revised = new Chunk<>(runNewPos, addedLines);
+            if (removedLines.isEmpty()) {
+                consumer.accept(new InsertDelta<>(original, revised));
+            } else if (addedLines.isEmpty()) {
+                consumer.accept(new DeleteDelta<>(original, revised));
+            } else {
+                consumer.accept(new ChangeDelta<>(original, revised));
+            }
+            removedLines = new ArrayList<>();
+            addedLines = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Parses hunk headers like {@code @@ -1,5 +1,6 @@} by hand. The counts are optional and any whitespace may separate
+     * the parts. Git appends the enclosing section of the hunk after another space, this text is ignored.
+     */
+    private static final class HunkHeader {
+
+        private int oldLn;
+        private int oldCount;
+        private int newLn;
+        private int newCount;
+        private int cursor;
+
+        /**
+         * @return true if the line is a hunk header, its values are available until the next call
+         */
+        boolean parse(String line) {
+            if (!line.startsWith("@@")) {
+                return false;
+            }
+            cursor = 2;
+            if (!skipWhitespace(line) || !skip(line, '-')) {
+                return false;
+            }
+            oldLn = parseNumber(line);
+            oldCount = parseCount(line);
+            if (oldLn < 0 || oldCount < 0 || !skipWhitespace(line) || !skip(line, '+')) {
+                return false;
+            }
+            newLn = parseNumber(line);
+            newCount = parseCount(line);
+            if (newLn < 0 || newCount < 0 || !skipWhitespace(line) || !line.startsWith("@@", cursor)) {
+                return false;
+            }
+            cursor += 2;
+            return cursor == line.length() || cursor == line.length() - 1 && line.charAt(cursor) == '\n'
+                    || line.charAt(cursor) == ' ';
+        }
+
+        /**
+         * Parses the optional count of a range like {@code 1,5}, returning -1 if it is invalid.
+         */
+        private int parseCount(String line) {
+            return skip(line, ',') ? parseNumber(line) : 1;
+        }
+
+        private int parseNumber(String line) {
+            int begin = cursor;
+            while (cursor < line.length() && line.charAt(cursor) >= '0' && line.charAt(cursor) <= '9') {
+                cursor++;
+            }
+            if (cursor == begin) {
+                return -1;
+            }
+            return Integer.parseInt(line.substring(begin, cursor));
+        }
+
+        private boolean skip(String line, char c) {
+            if (cursor < line.length() && line.charAt(cursor) == c) {
+                cursor++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean skipWhitespace(String line) {
+            int begin = cursor;
+            while (cursor < line.length() && isWhitespace(line.charAt(cursor))) {
+                cursor++;
+            }
+            return cursor > begin;
+        }
+
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
     }
 
     /**
@@ -141,171 +382,136 @@ public final class UnifiedDiffUtils {
     public static List<String> generateUnifiedDiff(String originalFileName,
             String revisedFileName, List<String> originalLines, Patch<String> patch,
             int contextSize) {
-        if (!patch.getDeltas().isEmpty()) {
-            List<String> ret = new ArrayList<>();
-            ret.add("--- " + originalFileName);
-            ret.add("+++ " + revisedFileName);
-
-            List<Delta<String>> patchDeltas = new ArrayList<>(
-                    patch.getDeltas());
-
-            // code outside the if block also works for single-delta issues.
-            List<Delta<String>> deltas = new ArrayList<>(); // current
-            // list
-            // of
-            // Delta's to
-            // process
-            Delta<String> delta = patchDeltas.get(0);
-            deltas.add(delta); // add the first Delta to the current set
-            // if there's more than 1 Delta, we may need to output them together
-            if (patchDeltas.size() > 1) {
-                for (int i = 1; i < patchDeltas.size(); i++) {
-                    int position = delta.getOriginal().getPosition(); // store
-                    // the
-                    // current
-                    // position
-                    // of
-                    // the first Delta
-
-                    // Check if the next Delta is too close to the current
-                    // position.
-                    // And if it is, add it to the current set
-                    Delta<String> nextDelta = patchDeltas.get(i);
-                    if ((position + delta.getOriginal().size() + contextSize) >= (nextDelta
-                            .getOriginal().getPosition() - contextSize)) {
-                        deltas.add(nextDelta);
-                    } else {
-                        // if it isn't, output the current set,
-                        // then create a new set and add the current Delta to
-                        // it.
-                        List<String> curBlock = processDeltas(originalLines,
-                                deltas, contextSize);
-                        ret.addAll(curBlock);
-                        deltas.clear();
-                        deltas.add(nextDelta);
-                    }
-                    delta = nextDelta;
-                }
-
-            }
-            // don't forget to process the last set of Deltas
-            List<String> curBlock = processDeltas(originalLines, deltas,
-                    contextSize);
-            ret.addAll(curBlock);
-            return ret;
+        List<String> ret = new ArrayList<>();
+        try {
+            writeUnifiedDiff(originalFileName, revisedFileName, originalLines, patch.getDeltasWithoutMoves(true), contextSize,
+                    (prefix, line) -> ret.add(prefix + line));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return new ArrayList<>();
+        return ret;
     }
 
     /**
-     * processDeltas takes a list of Deltas and outputs them together in a single block of Unified-Diff-format text.
+     * Writes the Unified Diff format text representing the Patch to the given output, one line after another each
+     * terminated by a line feed. The output is the same as the one of
+     * {@link #generateUnifiedDiff(String, String, List, Patch, int)}, but it is not collected.
      *
-     * @param origLines - the lines of the original file
-     * @param deltas - the Deltas to be output as a single block
-     * @param contextSize - the number of lines of context to place around block
-     * @return
-     * @author Bill James (tankerbay@gmail.com)
+     * @param originalFileName Filename of the original (unrevised file)
+     * @param revisedFileName Filename of the revised file
+     * @param originalLines Lines of the original file
+     * @param patch Patch created by the diff() function
+     * @param contextSize number of lines of context output around each difference in the file.
+     * @param out the output, for instance a {@link java.io.Writer}
+     * @throws IOException if writing to the output fails
      */
-    private static List<String> processDeltas(List<String> origLines,
-            List<Delta<String>> deltas, int contextSize) {
-        List<String> buffer = new ArrayList<>();
-        int origTotal = 0; // counter for total lines output from Original
-        int revTotal = 0; // counter for total lines output from Original
-        int line;
-
-        Delta<String> curDelta = deltas.get(0);
+    public static void writeUnifiedDiff(String originalFileName, String revisedFileName, List<String> originalLines,
+            Patch<String> patch, int contextSize, Appendable out) throws IOException {
+        writeUnifiedDiff(originalFileName, revisedFileName, originalLines, patch.getDeltasWithoutMoves(true), contextSize,
+                (prefix, line) -> out.append(prefix).append(line).append('\n'));
+    }
 
-        // NOTE: +1 to overcome the 0-offset Position
-        int origStart = curDelta.getOriginal().getPosition() + 1 - contextSize;
-        if (origStart < 1) {
-            origStart = 1;
+    /**
+     * Writes the Unified Diff format text for the changes computed by a diff algorithm to the given output, without
+     * creating a Patch first. The lines of the deltas are taken directly from the original and revised lines.
+     *
+     * @param originalFileName Filename of the original (unrevised file)
+     * @param revisedFileName Filename of the revised file
+     * @param originalLines Lines of the original file
+     * @param revisedLines Lines of the revised file
+     * @param changes the changes computed by a diff algorithm for both files
+     * @param contextSize number of lines of context output around each difference in the file.
+     * @param out the output, for instance a {@link java.io.Writer}
+     * @throws IOException if writing to the output fails
+     */
+    public static void writeUnifiedDiff(String originalFileName, String revisedFileName, List<String> originalLines,
+            List<String> revisedLines, List<Change> changes, int contextSize, Appendable out) throws IOException {
+        List<Delta<String>> deltas = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            deltas.add(new ChangeDelta<>(
+                    new Chunk<>(change.startOriginal, originalLines.subList(change.startOriginal, change.endOriginal)),
+                    new Chunk<>(change.startRevised, revisedLines.subList(change.startRevised, change.endRevised))));
         }
+        deltas.sort(comparingInt(delta -> delta.getOriginal().getPosition()));
+        writeUnifiedDiff(originalFileName, revisedFileName, originalLines, deltas, contextSize,
+                (prefix, line) -> out.append(prefix).append(line).append('\n'));
+    }
 
-        int revStart = curDelta.getRevised().getPosition() + 1 - contextSize;
-        if (revStart < 1) {
-            revStart = 1;
-        }
+    /**
+     * Receives the lines of a unified diff, split into their prefix and their text.
+     */
+    @FunctionalInterface
+    private interface LineSink {
 
-        // find the start of the wrapper context code
-        int contextStart = curDelta.getOriginal().getPosition() - contextSize;
-        if (contextStart < 0) {
-            contextStart = 0; // clamp to the start of the file
-        }
+        void accept(String prefix, String line) throws IOException;
+    }
 
-        // output the context before the first Delta
-        for (line = contextStart; line < curDelta.getOriginal().getPosition(); line++) { //
-            buffer.add(" " + origLines.get(line));
-            origTotal++;
-            revTotal++;
+    private static void writeUnifiedDiff(String originalFileName, String revisedFileName, List<String> originalLines,
+            List<Delta<String>> deltas, int contextSize, LineSink sink) throws IOException {
+        if (deltas.isEmpty()) {
+            return;
         }
+        sink.accept("--- ", originalFileName);
+        sink.accept("+++ ", revisedFileName);
 
-        // output the first Delta
-        buffer.addAll(getDeltaText(curDelta));
-        origTotal += curDelta.getOriginal().getLines().size();
-        revTotal += curDelta.getRevised().getLines().size();
-
-        int deltaIndex = 1;
-        while (deltaIndex < deltas.size()) { // for each of the other Deltas
-            Delta<String> nextDelta = deltas.get(deltaIndex);
-            int intermediateStart = curDelta.getOriginal().getPosition()
-                    + curDelta.getOriginal().getLines().size();
-            for (line = intermediateStart; line < nextDelta.getOriginal()
-                    .getPosition(); line++) {
-                // output the code between the last Delta and this one
-                buffer.add(" " + origLines.get(line));
-                origTotal++;
-                revTotal++;
+        // deltas are written together if the context of the previous one reaches the context of the next one
+        int first = 0;
+        for (int i = 1; i < deltas.size(); i++) {
+            Chunk<String> previous = deltas.get(i - 1).getOriginal();
+            if (previous.getPosition() + previous.size() + contextSize
+                    < deltas.get(i).getOriginal().getPosition() - contextSize) {
+                writeHunk(originalLines, deltas.subList(first, i), contextSize, sink);
+                first = i;
             }
-            buffer.addAll(getDeltaText(nextDelta)); // output the Delta
-            origTotal += nextDelta.getOriginal().getLines().size();
-            revTotal += nextDelta.getRevised().getLines().size();
-            curDelta = nextDelta;
-            deltaIndex++;
-        }
-
-        // Now output the post-Delta context code, clamping the end of the file
-        contextStart = curDelta.getOriginal().getPosition()
-                + curDelta.getOriginal().getLines().size();
-        for (line = contextStart; (line < (contextStart + contextSize))
-                && (line < origLines.size()); line++) {
-            buffer.add(" " + origLines.get(line));
-            origTotal++;
-            revTotal++;
         }
-
-        // Create and insert the block header, conforming to the Unified Diff
-        // standard
-        StringBuffer header = new StringBuffer();
-        header.append("@@ -");
-        header.append(origStart);
-        header.append(",");
-        header.append(origTotal);
-        header.append(" +");
-        header.append(revStart);
-        header.append(",");
-        header.append(revTotal);
-        header.append(" @@");
-        buffer.add(0, header.toString());
-
-        return buffer;
+        writeHunk(originalLines, deltas.subList(first, deltas.size()), contextSize, sink);
     }
 
     /**
-     * getDeltaText returns the lines to be added to the Unified Diff text from the Delta parameter
+     * Writes the given deltas together as a single hunk. The header is computed from the positions and sizes of the
+     * deltas, so the hunk is written front to back.
      *
-     * @param delta - the Delta to output
-     * @return list of String lines of code.
      * @author Bill James (tankerbay@gmail.com)
      */
-    private static List<String> getDeltaText(Delta<String> delta) {
-        List<String> buffer = new ArrayList<>();
-        for (String line : delta.getOriginal().getLines()) {
-            buffer.add("-" + line);
+    private static void writeHunk(List<String> origLines, List<Delta<String>> deltas, int contextSize, LineSink sink)
+            throws IOException {
+        Delta<String> firstDelta = deltas.get(0);
+        Delta<String> lastDelta = deltas.get(deltas.size() - 1);
+
+        // find the start and the end of the wrapper context code, clamped to the file
+        int contextStart = Math.max(firstDelta.getOriginal().getPosition() - contextSize, 0);
+        int lastEnd = lastDelta.getOriginal().getPosition() + lastDelta.getOriginal().size();
+        int contextEnd = Math.min(lastEnd + contextSize, origLines.size());
+
+        int origTotal = contextEnd - contextStart;
+        int revTotal = origTotal;
+        for (Delta<String> delta : deltas) {
+            revTotal += delta.getRevised().size() - delta.getOriginal().size();
+        }
+
+        // NOTE: +1 to overcome the 0-offset Position
+        int origStart = Math.max(firstDelta.getOriginal().getPosition() + 1 - contextSize, 1);
+        int revStart = Math.max(firstDelta.getRevised().getPosition() + 1 - contextSize, 1);
+        sink.accept("@@ -", origStart + "," + origTotal + " +" + revStart + "," + revTotal + " @@");
+
+        int line = contextStart;
+        for (Delta<String> delta : deltas) {
+            // output the context before this delta
+            for (; line < delta.getOriginal().getPosition(); line++) {
+                sink.accept(" ", origLines.get(line));
+            }
+            for (String deleted : delta.getOriginal().getLines()) {
+                sink.accept("-", deleted);
+            }
+            for (String inserted : delta.getRevised().getLines()) {
+                sink.accept("+", inserted);
+            }
+            line = delta.getOriginal().getPosition() + delta.getOriginal().size();
         }
-        for (String line : delta.getRevised().getLines()) {
-            buffer.add("+" + line);
+        // Now output the post-Delta context code
+        for (; line < contextEnd; line++) {
+            sink.accept(" ", origLines.get(line));
         }
-        return buffer;
     }
 
     private UnifiedDiffUtils() {
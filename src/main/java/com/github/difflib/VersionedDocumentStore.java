@@ -0,0 +1,282 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Chunk;
+import com.github.difflib.patch.InsertDelta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores all revisions of a text document within an append-only file. Each revision is stored either as full snapshot
+ * or as patch against an earlier revision, encoded with {@link BinaryPatchUtils}.
+ *
+ * <p>
+ * Every {@code checkpointInterval} revisions a snapshot is written. In between skip-deltas are used: the revision at
+ * offset {@code n} behind a snapshot is stored against the revision at offset {@code n & (n - 1)}. Rebuilding any
+ * revision therefore needs at most log2(checkpointInterval) patch applications, while most patches are still computed
+ * against a close predecessor.
+ * </p>
+ *
+ * <p>
+ * Each record of the file holds the length of its payload, the revision it is based on, or -1 for a snapshot, and the
+ * encoded patch. The file is read through a memory mapping of its first 2 GB, which is renewed only once the file has
+ * doubled in size, records not covered by it are read directly. A record truncated by a crash while appending is
+ * discarded when the store is opened.
+ * </p>
+ */
+public final class VersionedDocumentStore implements Closeable {
+
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int SNAPSHOT = -1;
+
+    private final FileChannel channel;
+    private final int checkpointInterval;
+    private final List<Long> offsets = new ArrayList<>();
+    private long size;
+    private MappedByteBuffer mapped;
+    private final Map<Integer, List<String>> revisions = new HashMap<>();
+
+    private VersionedDocumentStore(FileChannel channel, int checkpointInterval) {
+        this.channel = channel;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Opens the store within the given file, creating the file if it does not exist.
+     *
+     * @param file the file holding the revisions
+     * @param checkpointInterval the number of revisions after which a full snapshot is stored
+     * @return the opened store
+     * @throws IOException if the file can not be opened or read
+     */
+    public static VersionedDocumentStore open(Path file, int checkpointInterval) throws IOException {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("checkpointInterval must be positive");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        VersionedDocumentStore store = new VersionedDocumentStore(channel, checkpointInterval);
+        try {
+            store.scan();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void scan() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= fileSize) {
+            header.clear();
+            readFully(header, offset);
+            int payloadLength = header.getInt(0);
+            if (payloadLength < 0 || offset + RECORD_HEADER_SIZE + payloadLength > fileSize) {
+                break;
+            }
+            offsets.add(offset);
+            offset += RECORD_HEADER_SIZE + payloadLength;
+        }
+        if (offset < fileSize) {
+            channel.truncate(offset);
+        }
+        size = offset;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of " + channel);
+            }
+        }
+    }
+
+    /**
+     * Appends a new revision.
+     *
+     * @param revision the lines of the revision
+     * @return the version number of the revision, starting with 0
+     * @throws IOException if the revision can not be written
+     */
+    public synchronized int append(List<String> revision) throws IOException {
+        int version = offsets.size();
+        int base = baseOf(version);
+        Patch<String> patch = null;
+        if (base != SNAPSHOT) {
+            try {
+                patch = DiffUtils.diff(get(base), revision);
+            } catch (DiffException e) {
+                // a snapshot is always possible
+                base = SNAPSHOT;
+            }
+        }
+        if (base == SNAPSHOT) {
+            patch = snapshot(revision);
+        }
+        return write(version, base, patch, revision);
+    }
+
+    private int write(int version, int base, Patch<String> patch, List<String> revision) throws IOException {
+        ByteBuffer payload = BinaryPatchUtils.encode(patch, false);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(payload.remaining());
+        header.putInt(base);
+        header.flip();
+        long offset = size;
+        long position = offset;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        while (payload.hasRemaining()) {
+            position += channel.write(payload, position);
+        }
+        offsets.add(offset);
+        size = position;
+        // later appends are stored against the new revision or one of its bases, keep just these
+        List<Integer> bases = new ArrayList<>();
+        for (int current = version; current != SNAPSHOT; current = baseOf(current)) {
+            bases.add(current);
+        }
+        revisions.keySet().retainAll(bases);
+        revisions.put(version, Collections.unmodifiableList(new ArrayList<>(revision)));
+        return version;
+    }
+
+    /**
+     * Rebuilds the given revision.
+     *
+     * @param version the version number of the revision
+     * @return the lines of the revision
+     * @throws IOException if the revision can not be read
+     */
+    public synchronized List<String> get(int version) throws IOException {
+        if (version < 0 || version >= offsets.size()) {
+            throw new IndexOutOfBoundsException("no revision " + version);
+        }
+        // collect the chain of patches down to the snapshot or a kept revision, then apply them upwards
+        List<Patch<String>> chain = new ArrayList<>();
+        List<String> text = Collections.emptyList();
+        int current = version;
+        while (current != SNAPSHOT) {
+            if (revisions.containsKey(current)) {
+                text = revisions.get(current);
+                break;
+            }
+            ByteBuffer record = record(current);
+            record.getInt();
+            int base = record.getInt();
+            chain.add(BinaryPatchUtils.decode(record));
+            current = base;
+        }
+        text = new ArrayList<>(text);
+        try {
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                text = chain.get(i).applyTo(text);
+            }
+        } catch (PatchFailedException e) {
+            throw new IOException("revision " + version + " is corrupted", e);
+        }
+        return text;
+    }
+
+    /**
+     * @return the number of stored revisions
+     */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Forces all appended revisions to be written to the storage device.
+     *
+     * @throws IOException if the revisions can not be written
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped = null;
+        channel.close();
+    }
+
+    /**
+     * Determines the revision the given revision is stored against, or {@link #SNAPSHOT}.
+     */
+    private int baseOf(int version) {
+        int offset = version % checkpointInterval;
+        if (offset == 0) {
+            return SNAPSHOT;
+        }
+        return version - offset + (offset & offset - 1);
+    }
+
+    /**
+     * Returns a view of the given record, positioned at the record header.
+     */
+    private ByteBuffer record(int version) throws IOException {
+        long offset = offsets.get(version);
+        long end = version + 1 < offsets.size() ? offsets.get(version + 1) : size;
+        if (end <= Integer.MAX_VALUE && (mapped == null || mapped.capacity() < end) && canRemap()) {
+            // the mapping is shared by all records ending within it, old mappings are only released by the GC
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        }
+        if (mapped != null && end <= mapped.capacity()) {
+            ByteBuffer buffer = mapped.duplicate();
+            buffer.position((int) offset);
+            buffer.limit((int) end);
+            return buffer;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - offset));
+        readFully(buffer, offset);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Checks whether the file has grown enough to map it again, doubling the mapping at least.
+     */
+    private boolean canRemap() {
+        return mapped == null || size >= 2L * mapped.capacity() && mapped.capacity() < Integer.MAX_VALUE;
+    }
+
+    private static Patch<String> snapshot(List<String> revision) {
+        Patch<String> patch = new Patch<>(1);
+        if (!revision.isEmpty()) {
+            patch.addDelta(new InsertDelta<>(new Chunk<>(0, Collections.<String>emptyList()),
+                    new Chunk<>(0, new ArrayList<>(revision))));
+        }
+        return patch;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.algorithm.rle;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithm;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.patch.DeltaType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Diff algorithm collapsing runs of identical elements before diffing. Inputs like logs or CSV files often contain
+ * long runs of blank lines, separators or repeated entries, each creating many equivalent paths for the underlying
+ * algorithm. Here each run is replaced by a single (element, count) symbol, the shorter sequences of runs are diffed
+ * and the resulting changes are expanded back to element positions.
+ *
+ * <p>
+ * Runs only differing in their count are reported as changed runs. So each expanded change is refined by removing the
+ * elements it has in common with the other side at its start and at its end, like the longer run of a changed run
+ * count.
+ * </p>
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class RunLengthDiff<T> implements DiffAlgorithm<T> {
+
+    private final DiffAlgorithm<Run<T>> runDiff;
+
+    /**
+     * Creates a run length diff using Myers algorithm to diff the runs.
+     */
+    public RunLengthDiff() {
+        this(new MyersDiff<>());
+    }
+
+    /**
+     * Creates a run length diff using the given algorithm to diff the runs.
+     *
+     * @param runDiff the algorithm used to diff the runs. Must not be {@code null}.
+     */
+    public RunLengthDiff(DiffAlgorithm<Run<T>> runDiff) {
+        Objects.requireNonNull(runDiff, "runDiff must not be null");
+        this.runDiff = runDiff;
+    }
+
+    @Override
+    public List<Change> diff(List<T> original, List<T> revised, DiffAlgorithmListener progress) throws DiffException {
+        Objects.requireNonNull(original, "original list must not be null");
+        Objects.requireNonNull(revised, "revised list must not be null");
+
+        List<Run<T>> originalRuns = new ArrayList<>();
+        int[] originalStarts = collapse(original, originalRuns);
+        List<Run<T>> revisedRuns = new ArrayList<>();
+        int[] revisedStarts = collapse(revised, revisedRuns);
+
+        List<Change> runChanges = runDiff.diff(originalRuns, revisedRuns, progress);
+        List<Change> result = new ArrayList<>(runChanges.size());
+        for (Change runChange : runChanges) {
+            int startOriginal = originalStarts[runChange.startOriginal];
+            int endOriginal = originalStarts[runChange.endOriginal];
+            int startRevised = revisedStarts[runChange.startRevised];
+            int endRevised = revisedStarts[runChange.endRevised];
+            while (startOriginal < endOriginal && startRevised < endRevised
+                    && Objects.equals(original.get(startOriginal), revised.get(startRevised))) {
+                startOriginal++;
+                startRevised++;
+            }
+            while (startOriginal < endOriginal && startRevised < endRevised
+                    && Objects.equals(original.get(endOriginal - 1), revised.get(endRevised - 1))) {
+                endOriginal--;
+                endRevised--;
+            }
+            if (startOriginal == endOriginal && startRevised == endRevised) {
+                continue;
+            }
+            DeltaType type;
+            if (startOriginal == endOriginal) {
+                type = DeltaType.INSERT;
+            } else if (startRevised == endRevised) {
+                type = DeltaType.DELETE;
+            } else {
+                type = DeltaType.CHANGE;
+            }
+            result.add(new Change(type, startOriginal, endOriginal, startRevised, endRevised));
+        }
+        return result;
+    }
+
+    /**
+     * Collapses the runs of the given elements.
+     *
+     * @return the start position of each run, followed by the number of elements
+     */
+    private static <T> int[] collapse(List<T> elements, List<Run<T>> runs) {
+        List<Integer> starts = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= elements.size(); i++) {
+            if (i == elements.size() || !Objects.equals(elements.get(i), elements.get(start))) {
+                runs.add(new Run<>(elements.get(start), i - start));
+                starts.add(start);
+                start = i;
+            }
+        }
+        int[] result = new int[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            result[i] = starts.get(i);
+        }
+        result[starts.size()] = elements.size();
+        return result;
+    }
+
+    /**
+     * A run of identical elements. Two runs are equal if their elements and their counts are equal.
+     *
+     * @param T The type of the compared elements in the 'lines'.
+     */
+    public static final class Run<T> {
+
+        private final T value;
+        private final int count;
+
+        Run(T value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(value) + count;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Run<?> other = (Run<?>) obj;
+            return count == other.count && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public String toString() {
+            return value + "*" + count;
+        }
+    }
+}
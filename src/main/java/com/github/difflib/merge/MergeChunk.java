@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.merge;
+
+import java.util.List;
+
+/**
+ * A region of a three-way merge. Its lines are given for the base text and for both sides of the merge.
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class MergeChunk<T> {
+
+    /**
+     * Specifies which side changed the region of a merge.
+     */
+    public enum Type {
+        /**
+         * Neither side changed the region.
+         */
+        UNCHANGED,
+        /**
+         * Only our side changed the region.
+         */
+        OURS,
+        /**
+         * Only their side changed the region.
+         */
+        THEIRS,
+        /**
+         * Both sides changed the region identically.
+         */
+        BOTH,
+        /**
+         * Both sides changed the region differently.
+         */
+        CONFLICT
+    }
+
+    private final Type type;
+    private final int basePosition;
+    private final List<T> base;
+    private final List<T> ours;
+    private final List<T> theirs;
+
+    public MergeChunk(Type type, int basePosition, List<T> base, List<T> ours, List<T> theirs) {
+        this.type = type;
+        this.basePosition = basePosition;
+        this.base = base;
+        this.ours = ours;
+        this.theirs = theirs;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isConflict() {
+        return type == Type.CONFLICT;
+    }
+
+    /**
+     * @return the start position of the region within the base text
+     */
+    public int getBasePosition() {
+        return basePosition;
+    }
+
+    /**
+     * @return the lines of the region within the base text
+     */
+    public List<T> getBase() {
+        return base;
+    }
+
+    /**
+     * @return the lines of the region within our text
+     */
+    public List<T> getOurs() {
+        return ours;
+    }
+
+    /**
+     * @return the lines of the region within their text
+     */
+    public List<T> getTheirs() {
+        return theirs;
+    }
+
+    /**
+     * @return the merged lines of the region, or {@code null} for a conflict
+     */
+    public List<T> getResult() {
+        switch (type) {
+            case UNCHANGED:
+                return base;
+            case THEIRS:
+                return theirs;
+            case CONFLICT:
+                return null;
+            default:
+                return ours;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + type + ", position: " + basePosition + ", base: " + base + ", ours: " + ours
+                + ", theirs: " + theirs + "]";
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.merge;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithm;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * Three-way merge of two texts derived from a common base text, like diff3. Both sides are diffed against the base in
+ * parallel, then the two lists of changes are walked once in order of their base positions. Changes of both sides
+ * that overlap or touch each other form a conflict, unless both sides changed the region identically.
+ */
+public final class ThreeWayMerge {
+
+    /**
+     * Merges both sides using the default diff algorithm.
+     *
+     * @param base the common base text
+     * @param ours our text derived from the base
+     * @param theirs their text derived from the base
+     * @return the regions of the merge, in the order of the base text
+     * @throws DiffException if a diff could not be computed
+     */
+    public static <T> List<MergeChunk<T>> merge(List<T> base, List<T> ours, List<T> theirs) throws DiffException {
+        List<MergeChunk<T>> chunks = new ArrayList<>();
+        merge(base, ours, theirs, new MyersDiff<>(), chunks::add);
+        return chunks;
+    }
+
+    /**
+     * Merges both sides and streams the regions of the merge to the consumer, in the order of the base text. The
+     * regions reference the given lists instead of copying them.
+     *
+     * @param base the common base text
+     * @param ours our text derived from the base
+     * @param theirs their text derived from the base
+     * @param algorithm the diff algorithm, used for both sides at the same time
+     * @param consumer the consumer receiving the regions
+     * @throws DiffException if a diff could not be computed
+     */
+    public static <T> void merge(List<T> base, List<T> ours, List<T> theirs, DiffAlgorithm<T> algorithm,
+            Consumer<MergeChunk<T>> consumer) throws DiffException {
+        Future<List<Change>> theirsDiff = ForkJoinPool.commonPool().submit(() -> algorithm.diff(base, theirs, null));
+        List<Change> oursChanges;
+        List<Change> theirsChanges;
+        try {
+            oursChanges = sorted(algorithm.diff(base, ours, null));
+            theirsChanges = sorted(theirsDiff.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DiffException("interrupted while merging");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DiffException) {
+                throw (DiffException) e.getCause();
+            }
+            throw new IllegalStateException("computing a diff failed unexpectedly", e.getCause());
+        } finally {
+            theirsDiff.cancel(true);
+        }
+
+        int i = 0;
+        int j = 0;
+        int basePos = 0;
+        int oursShift = 0;
+        int theirsShift = 0;
+        while (i < oursChanges.size() || j < theirsChanges.size()) {
+            int low = Integer.MAX_VALUE;
+            if (i < oursChanges.size()) {
+                low = oursChanges.get(i).startOriginal;
+            }
+            if (j < theirsChanges.size()) {
+                low = Math.min(low, theirsChanges.get(j).startOriginal);
+            }
+            if (basePos < low) {
+                consumer.accept(new MergeChunk<>(MergeChunk.Type.UNCHANGED, basePos, base.subList(basePos, low),
+                        ours.subList(basePos + oursShift, low + oursShift),
+                        theirs.subList(basePos + theirsShift, low + theirsShift)));
+            }
+
+            // collect all changes of both sides overlapping or touching each other
+            int high = low;
+            int ci = i;
+            int cj = j;
+            int clusterOursShift = 0;
+            int clusterTheirsShift = 0;
+            while (true) {
+                if (ci < oursChanges.size() && oursChanges.get(ci).startOriginal <= high) {
+                    Change change = oursChanges.get(ci++);
+                    high = Math.max(high, change.endOriginal);
+                    clusterOursShift += shiftOf(change);
+                } else if (cj < theirsChanges.size() && theirsChanges.get(cj).startOriginal <= high) {
+                    Change change = theirsChanges.get(cj++);
+                    high = Math.max(high, change.endOriginal);
+                    clusterTheirsShift += shiftOf(change);
+                } else {
+                    break;
+                }
+            }
+
+            List<T> oursLines = ours.subList(low + oursShift, high + oursShift + clusterOursShift);
+            List<T> theirsLines = theirs.subList(low + theirsShift, high + theirsShift + clusterTheirsShift);
+            MergeChunk.Type type;
+            if (cj == j) {
+                type = MergeChunk.Type.OURS;
+            } else if (ci == i) {
+                type = MergeChunk.Type.THEIRS;
+            } else if (oursLines.equals(theirsLines)) {
+                type = MergeChunk.Type.BOTH;
+            } else {
+                type = MergeChunk.Type.CONFLICT;
+            }
+            consumer.accept(new MergeChunk<>(type, low, base.subList(low, high), oursLines, theirsLines));
+
+            oursShift += clusterOursShift;
+            theirsShift += clusterTheirsShift;
+            basePos = high;
+            i = ci;
+            j = cj;
+        }
+        if (basePos < base.size()) {
+            consumer.accept(new MergeChunk<>(MergeChunk.Type.UNCHANGED, basePos, base.subList(basePos, base.size()),
+                    ours.subList(basePos + oursShift, ours.size()),
+                    theirs.subList(basePos + theirsShift, theirs.size())));
+        }
+    }
+
+    /**
+     * Finds only the conflicting regions of a merge, using the default diff algorithm.
+     *
+     * @param base the common base text
+     * @param ours our text derived from the base
+     * @param theirs their text derived from the base
+     * @return the conflicting regions, in the order of the base text
+     * @throws DiffException if a diff could not be computed
+     */
+    public static <T> List<MergeChunk<T>> findConflicts(List<T> base, List<T> ours, List<T> theirs) throws DiffException {
+        List<MergeChunk<T>> conflicts = new ArrayList<>();
+        merge(base, ours, theirs, new MyersDiff<>(), chunk -> {
+            if (chunk.isConflict()) {
+                conflicts.add(chunk);
+            }
+        });
+        return conflicts;
+    }
+
+    /**
+     * Joins the merged lines of all regions. Both sides of conflicting regions are included, surrounded by the given
+     * markers, like {@code <<<<<<<}, {@code =======} and {@code >>>>>>>}.
+     *
+     * @param chunks the regions of a merge
+     * @param oursMarker the line starting our side of a conflict
+     * @param separator the line separating both sides of a conflict
+     * @param theirsMarker the line ending their side of a conflict
+     * @return the merged text
+     */
+    public static List<String> toLines(List<MergeChunk<String>> chunks, String oursMarker, String separator,
+            String theirsMarker) {
+        List<String> lines = new ArrayList<>();
+        for (MergeChunk<String> chunk : chunks) {
+            if (chunk.isConflict()) {
+                lines.add(oursMarker);
+                lines.addAll(chunk.getOurs());
+                lines.add(separator);
+                lines.addAll(chunk.getTheirs());
+                lines.add(theirsMarker);
+            } else {
+                lines.addAll(chunk.getResult());
+            }
+        }
+        return lines;
+    }
+
+    private static int shiftOf(Change change) {
+        return change.endRevised - change.startRevised - (change.endOriginal - change.startOriginal);
+    }
+
+    private static List<Change> sorted(List<Change> changes) {
+        // the algorithms do not guarantee any order of the changes
+        List<Change> result = new ArrayList<>(changes);
+        result.sort(comparingInt(change -> change.startOriginal));
+        return result;
+    }
+
+    private ThreeWayMerge() {
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.List;
+
+/**
+ * The outcome of applying a patch to one target of a batch: either the patched text or the reason the patch failed.
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class BatchPatchResult<T> {
+
+    private final int index;
+    private final List<T> result;
+    private final PatchFailedException failure;
+
+    BatchPatchResult(int index, List<T> result, PatchFailedException failure) {
+        this.index = index;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the index of the target within the batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return {@code true} if the patch was applied
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return the patched text or {@code null} if the patch failed
+     */
+    public List<T> getResult() {
+        return result;
+    }
+
+    /**
+     * @return the reason the patch failed or {@code null} if it was applied
+     */
+    public PatchFailedException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPatchResult{" + "index=" + index + ", "
+                + (isSuccess() ? "result=" + result : "failure=" + failure.getMessage()) + '}';
+    }
+}
@@ -21,6 +21,7 @@ package com.github.difflib.patch;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Holds the information about the part of text involved in the diff process
@@ -36,8 +37,13 @@ import java.util.List;
  */
 public final class Chunk<T> {
 
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
     private final int position;
     private List<T> lines;
+    private volatile boolean hashed;
+    private long hash;
+    private int linesHashCode;
 
     /**
      * Creates a chunk and saves a copy of affected lines
@@ -62,22 +68,67 @@ public final class Chunk<T> {
     }
 
     /**
-     * Verifies that this chunk's saved text matches the corresponding text in the given sequence.
+     * Verifies that this chunk's saved text matches the corresponding text in the given sequence. The 64 bit hash of
+     * the target range is compared with {@link #getHash()} first, which only needs the hash codes of the lines, cached
+     * by strings, and rejects a mismatching target without comparing its lines. Since hash codes may collide, matching
+     * hashes are confirmed by comparing the lines.
      *
      * @param target the sequence to verify against.
      */
     public void verify(List<T> target) throws PatchFailedException {
-        if (position > target.size() || last() > target.size()) {
+        if (position > target.size() || position + size() > target.size()) {
             throw new PatchFailedException("Incorrect Chunk: the position of chunk > target size");
         }
-        for (int i = 0; i < size(); i++) {
-            if (!target.get(position + i).equals(lines.get(i))) {
-                throw new PatchFailedException(
-                        "Incorrect Chunk: the chunk content doesn't match the target");
+        int size = size();
+        long targetHash = 0;
+        for (int i = 0; i < size; i++) {
+            targetHash = targetHash * HASH_MULTIPLIER + Objects.hashCode(target.get(position + i));
+        }
+        if (targetHash != getHash()) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.hashCode(target.get(position + i)) != Objects.hashCode(lines.get(i))) {
+                    throw mismatch(i);
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(target.get(position + i), lines.get(i))) {
+                throw mismatch(i);
             }
         }
     }
 
+    private PatchFailedException mismatch(int line) {
+        return new PatchFailedException("Incorrect Chunk: the chunk content doesn't match the target at position "
+                + (position + line) + ", expected: " + lines.get(line));
+    }
+
+    /**
+     * Returns a 64 bit hash over all lines of this chunk, rolling over the hash codes of the lines. It is computed once
+     * and used by {@link #verify(List)}.
+     *
+     * @return the hash of the lines of this chunk
+     */
+    public long getHash() {
+        computeHashes();
+        return hash;
+    }
+
+    private void computeHashes() {
+        if (!hashed) {
+            long chunkHash = 0;
+            int listHashCode = 1;
+            for (T line : lines) {
+                int lineHash = Objects.hashCode(line);
+                chunkHash = chunkHash * HASH_MULTIPLIER + lineHash;
+                listHashCode = 31 * listHashCode + lineHash;
+            }
+            hash = chunkHash;
+            linesHashCode = listHashCode;
+            hashed = true;
+        }
+    }
+
     /**
      * @return the start position of chunk in the text
      */
@@ -87,6 +138,7 @@ public final class Chunk<T> {
 
     public void setLines(List<T> lines) {
         this.lines = lines;
+        this.hashed = false;
     }
 
     /**
@@ -110,13 +162,19 @@ public final class Chunk<T> {
     /*
      * (non-Javadoc)
      * 
+     * The hash code of the lines is computed once together with the chunk hash. The lines must therefore not be
+     * modified in place after the chunk has been hashed, use setLines() instead.
+     *
      * @see java.lang.Object#hashCode()
      */
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((lines == null) ? 0 : lines.hashCode());
+        if (lines != null) {
+            computeHashes();
+        }
+        result = prime * result + ((lines == null) ? 0 : linesHashCode);
         result = prime * result + position;
         result = prime * result + size();
         return result;
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A memory compact, immutable form of a {@link Patch} of text lines. Instead of lists of lines it stores the ids of
+ * the lines within a shared {@link LinePool} in a single array, so lines repeated across patches are stored once.
+ */
+public final class CompactPatch {
+
+    private static final DeltaType[] TYPES = DeltaType.values();
+    private static final int HEADER_SIZE = 5;
+
+    private final LinePool pool;
+    /**
+     * Per delta: type, original position, revised position, number of original lines, number of revised lines.
+     */
+    private final int[] headers;
+    private final int[] lineIds;
+    private int hashCode;
+
+    private CompactPatch(LinePool pool, int[] headers, int[] lineIds) {
+        this.pool = pool;
+        this.headers = headers;
+        this.lineIds = lineIds;
+    }
+
+    /**
+     * Creates the compact form of the given patch, adding its lines to the pool.
+     *
+     * @param patch the patch to store
+     * @param pool the pool holding the lines
+     * @return the compact patch
+     */
+    public static CompactPatch of(Patch<String> patch, LinePool pool) {
+        List<Delta<String>> deltas = patch.getDeltas();
+        int[] headers = new int[deltas.size() * HEADER_SIZE];
+        int lineCount = 0;
+        for (Delta<String> delta : deltas) {
+            lineCount += delta.getOriginal().size() + delta.getRevised().size();
+        }
+        int[] lineIds = new int[lineCount];
+        int h = 0;
+        int l = 0;
+        for (Delta<String> delta : deltas) {
+            switch (delta.getType()) {
+                case CHANGE:
+                case DELETE:
+                case INSERT:
+                    break;
+                default:
+                    throw new IllegalArgumentException("delta type " + delta.getType() + " can not be stored");
+            }
+            headers[h++] = delta.getType().ordinal();
+            headers[h++] = delta.getOriginal().getPosition();
+            headers[h++] = delta.getRevised().getPosition();
+            headers[h++] = delta.getOriginal().size();
+            headers[h++] = delta.getRevised().size();
+            for (String line : delta.getOriginal().getLines()) {
+                lineIds[l++] = pool.intern(line);
+            }
+            for (String line : delta.getRevised().getLines()) {
+                lineIds[l++] = pool.intern(line);
+            }
+        }
+        return new CompactPatch(pool, headers, lineIds);
+    }
+
+    /**
+     * Restores the regular form of this patch.
+     *
+     * @return a new patch with the same deltas as the stored one
+     */
+    public Patch<String> toPatch() {
+        Patch<String> patch = new Patch<>(getDeltaCount());
+        int l = 0;
+        for (int h = 0; h < headers.length; h += HEADER_SIZE) {
+            Chunk<String> original = new Chunk<>(headers[h + 1], lines(l, headers[h + 3]));
+            l += headers[h + 3];
+            Chunk<String> revised = new Chunk<>(headers[h + 2], lines(l, headers[h + 4]));
+            l += headers[h + 4];
+            switch (TYPES[headers[h]]) {
+                case CHANGE:
+                    patch.addDelta(new ChangeDelta<>(original, revised));
+                    break;
+                case DELETE:
+                    patch.addDelta(new DeleteDelta<>(original, revised));
+                    break;
+                default:
+                    patch.addDelta(new InsertDelta<>(original, revised));
+                    break;
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * Apply this patch to the given target.
+     *
+     * @param target the given target
+     * @return the patched text
+     * @throws PatchFailedException if can't apply patch
+     */
+    public List<String> applyTo(List<String> target) throws PatchFailedException {
+        return toPatch().applyTo(target);
+    }
+
+    /**
+     * @return the number of deltas of this patch
+     */
+    public int getDeltaCount() {
+        return headers.length / HEADER_SIZE;
+    }
+
+    /**
+     * @return the pool holding the lines of this patch
+     */
+    public LinePool getPool() {
+        return pool;
+    }
+
+    private List<String> lines(int from, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            lines.add(pool.get(lineIds[i]));
+        }
+        return lines;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hashCode;
+        if (result == 0) {
+            result = 31 * Arrays.hashCode(headers) + Arrays.hashCode(lineIds);
+            hashCode = result;
+        }
+        return result;
+    }
+
+    /**
+     * Two compact patches are equal if they hold the same deltas within the same pool.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        CompactPatch other = (CompactPatch) obj;
+        return pool == other.pool && hashCode() == other.hashCode()
+                && Arrays.equals(headers, other.headers) && Arrays.equals(lineIds, other.lineIds);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactPatch{" + "deltas=" + getDeltaCount() + ", lines=" + lineIds.length + '}';
+    }
+}
@@ -74,6 +74,20 @@ public abstract class Delta<T> {
      */
     public abstract void restore(List<T> target);
 
+    /**
+     * Applies this delta at the given position of the target. The first and last {@code fuzz} lines of both chunks are
+     * treated as context: they are neither verified nor replaced, the lines of the target are kept instead.
+     *
+     * @param target the given target
+     * @param fuzz number of context lines to ignore at the start and at the end of the chunks
+     * @param position the position within the target the original chunk was found at
+     */
+    void applyFuzzyToAt(List<T> target, int fuzz, int position) {
+        List<T> revisedLines = revised.getLines();
+        target.subList(position + fuzz, position + original.size() - fuzz).clear();
+        target.addAll(position + fuzz, revisedLines.subList(fuzz, revisedLines.size() - fuzz));
+    }
+
     public final DeltaType getType() {
         return deltaType;
     }
@@ -35,5 +35,9 @@ public enum DeltaType {
     /**
      * An do nothing.
      */
-    EQUAL
+    EQUAL,
+    /**
+     * A block of the original moved to another position.
+     */
+    MOVE
 }
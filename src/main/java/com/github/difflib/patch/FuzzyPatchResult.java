@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.List;
+
+/**
+ * The result of a fuzzy patch application. Besides the patched text it reports for each delta, in the order of
+ * {@link Patch#getDeltas()}, the offset it was actually applied at and the number of context lines that were ignored.
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class FuzzyPatchResult<T> {
+
+    private final List<T> result;
+    private final int[] offsets;
+    private final int[] fuzzes;
+
+    FuzzyPatchResult(List<T> result, int[] offsets, int[] fuzzes) {
+        this.result = result;
+        this.offsets = offsets;
+        this.fuzzes = fuzzes;
+    }
+
+    /**
+     * @return the patched text
+     */
+    public List<T> getResult() {
+        return result;
+    }
+
+    /**
+     * @param deltaIndex index of the delta within the patch
+     * @return the difference between the position the delta was applied at and its original position
+     */
+    public int getOffset(int deltaIndex) {
+        return offsets[deltaIndex];
+    }
+
+    /**
+     * @param deltaIndex index of the delta within the patch
+     * @return the number of leading and trailing context lines that were ignored to apply the delta
+     */
+    public int getFuzz(int deltaIndex) {
+        return fuzzes[deltaIndex];
+    }
+
+    /**
+     * @return {@code true} if every delta was applied at its original position without ignoring any context
+     */
+    public boolean isExact() {
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] != 0 || fuzzes[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "FuzzyPatchResult{" + "result=" + result + '}';
+    }
+}
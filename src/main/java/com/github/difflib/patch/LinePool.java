@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A pool storing each distinct line only once, as UTF-8 bytes together with its hash. Lines are referenced by the id
+ * returned by {@link #intern(String)}. Patches sharing a pool, see {@link CompactPatch}, store repeated lines only once.
+ *
+ * <p>
+ * The pool is thread safe. Lines are never removed from it.
+ * </p>
+ */
+public final class LinePool {
+
+    private byte[][] lines = new byte[16][];
+    private int[] hashes = new int[16];
+    private int size;
+    /**
+     * Open addressing table of line ids plus one, zero marks a free slot.
+     */
+    private int[] table = new int[32];
+
+    /**
+     * Adds the line to the pool if it is not already contained.
+     *
+     * @param line the line to add
+     * @return the id of the line
+     */
+    public int intern(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        synchronized (this) {
+            int slot = hash & table.length - 1;
+            while (table[slot] != 0) {
+                int id = table[slot] - 1;
+                if (hashes[id] == hash && Arrays.equals(lines[id], bytes)) {
+                    return id;
+                }
+                slot = slot + 1 & table.length - 1;
+            }
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            int id = size++;
+            lines[id] = bytes;
+            hashes[id] = hash;
+            table[slot] = id + 1;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return id;
+        }
+    }
+
+    /**
+     * @param id the id of a line
+     * @return the line with the given id
+     */
+    public String get(int id) {
+        byte[] bytes;
+        synchronized (this) {
+            if (id < 0 || id >= size) {
+                throw new IndexOutOfBoundsException("no line with id " + id);
+            }
+            bytes = lines[id];
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param id the id of a line
+     * @return the cached hash of the line with the given id
+     */
+    public synchronized int hashOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no line with id " + id);
+        }
+        return hashes[id];
+    }
+
+    /**
+     * @return the number of distinct lines within the pool
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & newTable.length - 1;
+            while (newTable[slot] != 0) {
+                slot = slot + 1 & newTable.length - 1;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = Arrays.hashCode(bytes);
+        // spread the bits, since the table is indexed by the lowest ones
+        return hash ^ hash >>> 16;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a block of lines moved from one position to another. The original chunk holds the block at its source
+ * position within the original text, the revised chunk holds the block at its destination position within the revised
+ * text.
+ *
+ * <p>
+ * To be applied together with other deltas a move also knows the position within the original text the block is
+ * inserted at, and the position within the revised text the block was removed from. {@link Patch#applyTo(List)} and
+ * {@link Patch#restore(List)} decompose a move into a delete and an insert at these positions.
+ * </p>
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class MoveDelta<T> extends Delta<T> {
+
+    private final int originalTargetPosition;
+    private final int revisedSourcePosition;
+
+    /**
+     * Creates a move delta.
+     *
+     * @param original The moved block at its source position within the original text. Must not be {@code null}.
+     * @param revised The moved block at its destination position within the revised text. Must not be {@code null}.
+     * @param originalTargetPosition the position within the original text the block is inserted at
+     * @param revisedSourcePosition the position within the revised text the block was removed from
+     */
+    public MoveDelta(Chunk<T> original, Chunk<T> revised, int originalTargetPosition, int revisedSourcePosition) {
+        super(DeltaType.MOVE, original, revised);
+        this.originalTargetPosition = originalTargetPosition;
+        this.revisedSourcePosition = revisedSourcePosition;
+    }
+
+    public int getOriginalTargetPosition() {
+        return originalTargetPosition;
+    }
+
+    public int getRevisedSourcePosition() {
+        return revisedSourcePosition;
+    }
+
+    /**
+     * @return the delete part of this move, removing the block from its source position
+     */
+    public DeleteDelta<T> toDelete() {
+        return new DeleteDelta<>(getOriginal(), new Chunk<>(revisedSourcePosition, Collections.emptyList()));
+    }
+
+    /**
+     * @return the insert part of this move, inserting the block at its destination position
+     */
+    public InsertDelta<T> toInsert() {
+        return new InsertDelta<>(new Chunk<>(originalTargetPosition, Collections.emptyList()), getRevised());
+    }
+
+    /**
+     * Applies this move as the only delta of a patch to the given target.
+     */
+    @Override
+    public void applyTo(List<T> target) throws PatchFailedException {
+        verify(target);
+        int size = getOriginal().size();
+        int position = getOriginal().getPosition();
+        target.subList(position, position + size).clear();
+        int targetPosition = originalTargetPosition > position ? originalTargetPosition - size : originalTargetPosition;
+        target.addAll(targetPosition, getRevised().getLines());
+    }
+
+    /**
+     * Cancels this move as the only delta of a patch for the given revised text.
+     */
+    @Override
+    public void restore(List<T> target) {
+        int size = getRevised().size();
+        int position = getRevised().getPosition();
+        target.subList(position, position + size).clear();
+        int sourcePosition = revisedSourcePosition > position ? revisedSourcePosition - size : revisedSourcePosition;
+        target.addAll(sourcePosition, getOriginal().getLines());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + originalTargetPosition) + revisedSourcePosition;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) {
+            return false;
+        }
+        MoveDelta<?> other = (MoveDelta<?>) obj;
+        return originalTargetPosition == other.originalTargetPosition
+                && revisedSourcePosition == other.revisedSourcePosition;
+    }
+
+    @Override
+    public String toString() {
+        return "[MoveDelta, position: " + getOriginal().getPosition() + " to " + originalTargetPosition + ", lines: "
+                + getOriginal().getLines() + "]";
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import com.github.difflib.algorithm.Change;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * Detects blocks of lines moved within a text. Diff algorithms report a moved block as a delete and an unrelated
+ * insert. This post-processing stage finds blocks of deleted original lines reappearing among the inserted revised
+ * lines and replaces them by {@link MoveDelta}s, so the block is stored once.
+ *
+ * <p>
+ * All windows of {@code minMoveSize} deleted lines are indexed by a rolling hash. The inserted lines are scanned with
+ * the same rolling hash; every verified match is extended as far as possible and its lines are excluded from further
+ * matches. So the detection is about linear in the number of changed lines.
+ * </p>
+ */
+public final class MoveDetector {
+
+    private static final long BASE = 1_000_003L;
+
+    /**
+     * Creates a patch from the given changes, replacing moved blocks of at least {@code minMoveSize} lines by moves.
+     * The remaining lines of a change containing a moved block are split into separate deletes and inserts.
+     *
+     * @param original the original text
+     * @param revised the revised text
+     * @param changes the changes computed by a diff algorithm for both texts
+     * @param minMoveSize the minimal number of lines of a moved block
+     * @return the patch containing moves
+     */
+    public static <T> Patch<T> generate(List<T> original, List<T> revised, List<Change> changes, int minMoveSize) {
+        if (minMoveSize < 1) {
+            throw new IllegalArgumentException("minMoveSize must be positive");
+        }
+        List<Change> sorted = new ArrayList<>(changes);
+        sorted.sort(comparingInt(change -> change.startOriginal));
+
+        // index all windows of deleted lines, encoding the change index and the position into one key
+        Map<Long, List<Long>> windows = new HashMap<>();
+        for (int k = 0; k < sorted.size(); k++) {
+            Change change = sorted.get(k);
+            long[] hashes = windowHashes(original, change.startOriginal, change.endOriginal, minMoveSize);
+            for (int i = 0; i < hashes.length; i++) {
+                windows.computeIfAbsent(hashes[i], h -> new ArrayList<>(1))
+                        .add((long) k << 32 | change.startOriginal + i);
+            }
+        }
+
+        BitSet movedOriginal = new BitSet(original.size());
+        BitSet movedRevised = new BitSet(revised.size());
+        List<MoveDelta<T>> moves = new ArrayList<>();
+        for (int k = 0; k < sorted.size() && !windows.isEmpty(); k++) {
+            Change change = sorted.get(k);
+            long[] hashes = windowHashes(revised, change.startRevised, change.endRevised, minMoveSize);
+            int i = 0;
+            while (i < hashes.length) {
+                int position = change.startRevised + i;
+                int length = 0;
+                List<Long> candidates = windows.get(hashes[i]);
+                if (candidates != null) {
+                    for (long candidate : candidates) {
+                        Change source = sorted.get((int) (candidate >>> 32));
+                        int sourcePosition = (int) candidate;
+                        length = matchLength(original, sourcePosition, source.endOriginal, movedOriginal,
+                                revised, position, change.endRevised);
+                        if (length >= minMoveSize) {
+                            Chunk<T> orgChunk = new Chunk<>(sourcePosition,
+                                    new ArrayList<>(original.subList(sourcePosition, sourcePosition + length)));
+                            orgChunk.getHash();
+                            moves.add(new MoveDelta<>(orgChunk, new Chunk<>(position, orgChunk.getLines()),
+                                    change.startOriginal, source.startRevised));
+                            movedOriginal.set(sourcePosition, sourcePosition + length);
+                            movedRevised.set(position, position + length);
+                            break;
+                        }
+                    }
+                }
+                i += length >= minMoveSize ? length : 1;
+            }
+        }
+
+        Patch<T> patch = new Patch<>(changes.size() + moves.size());
+        for (Change change : sorted) {
+            if (!containsMoved(movedOriginal, change.startOriginal, change.endOriginal)
+                    && !containsMoved(movedRevised, change.startRevised, change.endRevised)) {
+                Chunk<T> orgChunk = new Chunk<>(change.startOriginal,
+                        new ArrayList<>(original.subList(change.startOriginal, change.endOriginal)));
+                orgChunk.getHash();
+                patch.addDelta(Patch.buildDelta(orgChunk, new Chunk<>(change.startRevised,
+                        new ArrayList<>(revised.subList(change.startRevised, change.endRevised)))));
+                continue;
+            }
+            // the unmoved deleted lines are restored in front of the revised lines of the change, the unmoved
+            // inserted lines are applied in place of the original lines of the change
+            for (int[] run : unmovedRuns(movedOriginal, change.startOriginal, change.endOriginal)) {
+                Chunk<T> orgChunk = new Chunk<>(run[0], new ArrayList<>(original.subList(run[0], run[1])));
+                orgChunk.getHash();
+                patch.addDelta(new DeleteDelta<>(orgChunk, new Chunk<>(change.startRevised, Collections.emptyList())));
+            }
+            for (int[] run : unmovedRuns(movedRevised, change.startRevised, change.endRevised)) {
+                patch.addDelta(new InsertDelta<>(new Chunk<>(change.startOriginal, Collections.emptyList()),
+                        new Chunk<>(run[0], new ArrayList<>(revised.subList(run[0], run[1])))));
+            }
+        }
+        for (MoveDelta<T> move : moves) {
+            patch.addDelta(move);
+        }
+        return patch;
+    }
+
+    /**
+     * Computes the polynomial rolling hash of each window of {@code size} lines within the given range.
+     */
+    private static <T> long[] windowHashes(List<T> lines, int start, int end, int size) {
+        if (end - start < size) {
+            return new long[0];
+        }
+        long[] hashes = new long[end - start - size + 1];
+        long power = 1;
+        long hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash = hash * BASE + Objects.hashCode(lines.get(start + i));
+            if (i > 0) {
+                power *= BASE;
+            }
+        }
+        hashes[0] = hash;
+        for (int i = 1; i < hashes.length; i++) {
+            hash = (hash - power * Objects.hashCode(lines.get(start + i - 1))) * BASE
+                    + Objects.hashCode(lines.get(start + i + size - 1));
+            hashes[i] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Counts the equal lines of the deleted and the inserted range starting at the given positions, stopping at lines
+     * already moved.
+     */
+    private static <T> int matchLength(List<T> original, int originalPosition, int originalEnd, BitSet movedOriginal,
+            List<T> revised, int revisedPosition, int revisedEnd) {
+        int length = 0;
+        while (originalPosition + length < originalEnd && revisedPosition + length < revisedEnd
+                && !movedOriginal.get(originalPosition + length)
+                && Objects.equals(original.get(originalPosition + length), revised.get(revisedPosition + length))) {
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean containsMoved(BitSet moved, int start, int end) {
+        int next = moved.nextSetBit(start);
+        return next >= 0 && next < end;
+    }
+
+    private static List<int[]> unmovedRuns(BitSet moved, int start, int end) {
+        List<int[]> runs = new ArrayList<>();
+        int position = start;
+        while (position < end) {
+            int runEnd = moved.nextSetBit(position);
+            if (runEnd < 0 || runEnd > end) {
+                runEnd = end;
+            }
+            if (runEnd > position) {
+                runs.add(new int[]{position, runEnd});
+            }
+            position = moved.nextClearBit(runEnd);
+        }
+        return runs;
+    }
+
+    private MoveDetector() {
+    }
+}
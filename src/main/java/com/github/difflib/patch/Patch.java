@@ -25,8 +25,11 @@ import static com.github.difflib.patch.DeltaType.INSERT;
 import java.util.ArrayList;
 import java.util.Collections;
 import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingInt;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 /**
  * Describes the patch holding all deltas between the original and revised texts.
@@ -53,8 +56,17 @@ public final class Patch<T> {
      * @throws PatchFailedException if can't apply patch
      */
     public List<T> applyTo(List<T> target) throws PatchFailedException {
+        return applyTo(target, getDeltas());
+    }
+
+    /**
+     * Apply the deltas, sorted by their original position, to the given target. The deltas are only read, so the same
+     * list can be applied by several threads at once.
+     */
+    static <T> List<T> applyTo(List<T> target, List<Delta<T>> sortedDeltas) throws PatchFailedException {
         List<T> result = new ArrayList<>(target);
-        ListIterator<Delta<T>> it = getDeltas().listIterator(deltas.size());
+        List<Delta<T>> deltas = expandMoves(sortedDeltas, true);
+        ListIterator<Delta<T>> it = deltas.listIterator(deltas.size());
         while (it.hasPrevious()) {
             Delta<T> delta = it.previous();
             delta.applyTo(result);
@@ -62,6 +74,130 @@ public final class Patch<T> {
         return result;
     }
 
+    /**
+     * Apply this patch to the given target, tolerating a target that has drifted since the patch was created. Like GNU
+     * patch each delta is searched outward from its expected position, which is its original position shifted by the
+     * offset of the previously applied delta. If the delta does not match anywhere, up to {@code maxFuzz} leading and
+     * trailing context lines of the delta are ignored and the search is repeated. Only lines that are equal in the
+     * original and the revised chunk count as context.
+     *
+     * <p>
+     * Candidate positions are taken from a hash index of the target lines, so only positions where the first
+     * significant line of a delta actually occurs are verified.
+     * </p>
+     *
+     * @param target the given target
+     * @param maxFuzz the maximum number of context lines to ignore at either end of a delta
+     * @return the patched text together with the offset and fuzz used for each delta
+     * @throws PatchFailedException if a delta could not be found in the target
+     */
+    public FuzzyPatchResult<T> applyFuzzy(List<T> target, int maxFuzz) throws PatchFailedException {
+        if (maxFuzz < 0) {
+            throw new IllegalArgumentException("maxFuzz must not be negative");
+        }
+        requireNoMoves(this);
+        List<Delta<T>> sortedDeltas = getDeltas();
+        Map<T, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < target.size(); i++) {
+            index.computeIfAbsent(target.get(i), k -> new ArrayList<>()).add(i);
+        }
+
+        int[] positions = new int[sortedDeltas.size()];
+        int[] offsets = new int[sortedDeltas.size()];
+        int[] fuzzes = new int[sortedDeltas.size()];
+        int lastOffset = 0;
+        int lastEnd = 0;
+        for (int i = 0; i < sortedDeltas.size(); i++) {
+            Delta<T> delta = sortedDeltas.get(i);
+            int expected = delta.getOriginal().getPosition() + lastOffset;
+            int position = -1;
+            int fuzz = 0;
+            for (int maxUsableFuzz = contextSize(delta, maxFuzz); fuzz <= maxUsableFuzz; fuzz++) {
+                position = findPosition(target, index, delta.getOriginal(), fuzz, expected, lastEnd);
+                if (position >= 0) {
+                    break;
+                }
+            }
+            if (position < 0) {
+                throw new PatchFailedException("Incorrect Chunk: no matching position found in the target for " + delta);
+            }
+            positions[i] = position;
+            offsets[i] = position - delta.getOriginal().getPosition();
+            fuzzes[i] = fuzz;
+            lastOffset = offsets[i];
+            lastEnd = position + delta.getOriginal().size() - fuzz;
+        }
+
+        List<T> result = new ArrayList<>(target);
+        for (int i = sortedDeltas.size() - 1; i >= 0; i--) {
+            sortedDeltas.get(i).applyFuzzyToAt(result, fuzzes[i], positions[i]);
+        }
+        return new FuzzyPatchResult<>(result, offsets, fuzzes);
+    }
+
+    /**
+     * Determines how many leading and trailing lines of the delta are context, meaning equal in the original and the
+     * revised chunk. At least one original line always stays significant.
+     */
+    private static <T> int contextSize(Delta<T> delta, int maxFuzz) {
+        List<T> orig = delta.getOriginal().getLines();
+        List<T> rev = delta.getRevised().getLines();
+        int fuzz = 0;
+        while (fuzz < maxFuzz && 2 * (fuzz + 1) < orig.size() && 2 * (fuzz + 1) <= rev.size()
+                && orig.get(fuzz).equals(rev.get(fuzz))
+                && orig.get(orig.size() - 1 - fuzz).equals(rev.get(rev.size() - 1 - fuzz))) {
+            fuzz++;
+        }
+        return fuzz;
+    }
+
+    /**
+     * Searches outward from the expected position for the nearest position at which the chunk, without its first and
+     * last {@code fuzz} lines, matches the target.
+     *
+     * @return the position of the chunk or -1 if it could not be found
+     */
+    private static <T> int findPosition(List<T> target, Map<T, List<Integer>> index, Chunk<T> chunk,
+            int fuzz, int expected, int lastEnd) {
+        int size = chunk.size();
+        if (size == 0) {
+            int position = Math.max(expected, lastEnd);
+            return position <= target.size() ? position : -1;
+        }
+        List<Integer> candidates = index.get(chunk.getLines().get(fuzz));
+        if (candidates == null) {
+            return -1;
+        }
+        int above = Collections.binarySearch(candidates, expected + fuzz);
+        if (above < 0) {
+            above = -above - 1;
+        }
+        int below = above - 1;
+        while (below >= 0 || above < candidates.size()) {
+            int candidate;
+            if (below < 0 || above < candidates.size()
+                    && candidates.get(above) - expected - fuzz <= expected + fuzz - candidates.get(below)) {
+                candidate = candidates.get(above++) - fuzz;
+            } else {
+                candidate = candidates.get(below--) - fuzz;
+            }
+            if (candidate + fuzz >= lastEnd && candidate + size <= target.size()
+                    && matches(target, chunk.getLines(), fuzz, candidate)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> boolean matches(List<T> target, List<T> lines, int fuzz, int position) {
+        for (int i = fuzz; i < lines.size() - fuzz; i++) {
+            if (!target.get(position + i).equals(lines.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Restore the text to original. Opposite to applyTo() method.
      *
@@ -70,7 +206,8 @@ public final class Patch<T> {
      */
     public List<T> restore(List<T> target) {
         List<T> result = new ArrayList<>(target);
-        ListIterator<Delta<T>> it = getDeltas().listIterator(deltas.size());
+        List<Delta<T>> sortedDeltas = getDeltasWithoutMoves(false);
+        ListIterator<Delta<T>> it = sortedDeltas.listIterator(sortedDeltas.size());
         while (it.hasPrevious()) {
             Delta<T> delta = it.previous();
             delta.restore(result);
@@ -78,6 +215,51 @@ public final class Patch<T> {
         return result;
     }
 
+    /**
+     * Replaces each move by its delete and insert part. The resulting deltas are sorted by their original or revised
+     * position, so they can be applied or restored in reverse order. At the same position an insert sorts before a delta
+     * removing lines, because it has to be applied last.
+     */
+    private static <T> List<Delta<T>> expandMoves(List<Delta<T>> sortedDeltas, boolean byOriginal) {
+        if (!containsMoves(sortedDeltas)) {
+            return sortedDeltas;
+        }
+        List<Delta<T>> result = new ArrayList<>(sortedDeltas.size() + 8);
+        for (Delta<T> delta : sortedDeltas) {
+            if (delta instanceof MoveDelta) {
+                result.add(((MoveDelta<T>) delta).toDelete());
+                result.add(((MoveDelta<T>) delta).toInsert());
+            } else {
+                result.add(delta);
+            }
+        }
+        if (byOriginal) {
+            result.sort(comparingInt((Delta<T> d) -> d.getOriginal().getPosition())
+                    .thenComparingInt(d -> d.getOriginal().size() > 0 ? 1 : 0)
+                    .thenComparingInt(d -> d.getRevised().getPosition()));
+        } else {
+            result.sort(comparingInt((Delta<T> d) -> d.getRevised().getPosition())
+                    .thenComparingInt(d -> d.getRevised().size() > 0 ? 1 : 0)
+                    .thenComparingInt(d -> d.getOriginal().getPosition()));
+        }
+        return result;
+    }
+
+    private static <T> boolean containsMoves(List<Delta<T>> deltas) {
+        for (Delta<T> delta : deltas) {
+            if (delta.getType() == DeltaType.MOVE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> void requireNoMoves(Patch<T> patch) {
+        if (containsMoves(patch.deltas)) {
+            throw new IllegalArgumentException("patches containing moves are not supported");
+        }
+    }
+
     /**
      * Add the given delta to this patch
      *
@@ -97,16 +279,237 @@ public final class Patch<T> {
         return deltas;
     }
 
+    /**
+     * Get the deltas with each move replaced by its delete and insert part. The result describes the same change
+     * without moves, for consumers walking the deltas in order of their positions.
+     *
+     * @param byOriginal sort the deltas by their original positions, as needed to apply them, or by their revised
+     * positions, as needed to restore them
+     * @return the deltas without moves
+     */
+    public List<Delta<T>> getDeltasWithoutMoves(boolean byOriginal) {
+        return expandMoves(getDeltas(), byOriginal);
+    }
+
     @Override
     public String toString() {
         return "Patch{" + "deltas=" + deltas + '}';
     }
 
+    /**
+     * Composes two consecutive patches into a single equivalent patch. The second patch has to be based on the text the
+     * first one produces. The result transforms the original text of the first patch directly into the text produced by
+     * the second one, without materializing the intermediate text. Only the positions and the lines stored within the
+     * chunks are used.
+     *
+     * @param first the patch transforming the base text into the intermediate text
+     * @param second the patch transforming the intermediate text into the final text
+     * @return the composed patch
+     */
+    public static <T> Patch<T> compose(Patch<T> first, Patch<T> second) {
+        requireNoMoves(first);
+        requireNoMoves(second);
+        List<Delta<T>> firstDeltas = first.getDeltas();
+        List<Delta<T>> secondDeltas = second.getDeltas();
+        Patch<T> result = new Patch<>(firstDeltas.size() + secondDeltas.size());
+        int i = 0;
+        int j = 0;
+        int firstShift = 0;
+        int secondShift = 0;
+        while (i < firstDeltas.size() || j < secondDeltas.size()) {
+            // collect a cluster of deltas overlapping or touching each other within the intermediate text
+            int ci = i;
+            int cj = j;
+            int low = Integer.MAX_VALUE;
+            if (ci < firstDeltas.size()) {
+                low = firstDeltas.get(ci).getRevised().getPosition();
+            }
+            if (cj < secondDeltas.size()) {
+                low = Math.min(low, secondDeltas.get(cj).getOriginal().getPosition());
+            }
+            int high = low;
+            int clusterFirstShift = 0;
+            int clusterSecondShift = 0;
+            while (true) {
+                if (ci < firstDeltas.size() && firstDeltas.get(ci).getRevised().getPosition() <= high) {
+                    Delta<T> delta = firstDeltas.get(ci++);
+                    high = Math.max(high, delta.getRevised().getPosition() + delta.getRevised().size());
+                    clusterFirstShift += delta.getRevised().size() - delta.getOriginal().size();
+                } else if (cj < secondDeltas.size() && secondDeltas.get(cj).getOriginal().getPosition() <= high) {
+                    Delta<T> delta = secondDeltas.get(cj++);
+                    high = Math.max(high, delta.getOriginal().getPosition() + delta.getOriginal().size());
+                    clusterSecondShift += delta.getRevised().size() - delta.getOriginal().size();
+                } else {
+                    break;
+                }
+            }
+
+            List<Chunk<T>> firstRevised = new ArrayList<>(ci - i);
+            List<Chunk<T>> secondOriginal = new ArrayList<>(cj - j);
+            for (Delta<T> delta : firstDeltas.subList(i, ci)) {
+                firstRevised.add(delta.getRevised());
+            }
+            for (Delta<T> delta : secondDeltas.subList(j, cj)) {
+                secondOriginal.add(delta.getOriginal());
+            }
+            // lines of the cluster not touched by one patch are taken from the chunks of the other
+            List<T> originalLines = new ArrayList<>();
+            int cursor = low;
+            for (Delta<T> delta : firstDeltas.subList(i, ci)) {
+                copyLines(secondOriginal, cursor, delta.getRevised().getPosition(), originalLines);
+                originalLines.addAll(delta.getOriginal().getLines());
+                cursor = delta.getRevised().getPosition() + delta.getRevised().size();
+            }
+            copyLines(secondOriginal, cursor, high, originalLines);
+
+            List<T> revisedLines = new ArrayList<>();
+            cursor = low;
+            for (Delta<T> delta : secondDeltas.subList(j, cj)) {
+                copyLines(firstRevised, cursor, delta.getOriginal().getPosition(), revisedLines);
+                revisedLines.addAll(delta.getRevised().getLines());
+                cursor = delta.getOriginal().getPosition() + delta.getOriginal().size();
+            }
+            copyLines(firstRevised, cursor, high, revisedLines);
+
+            if (!originalLines.equals(revisedLines)) {
+                result.addDelta(buildDelta(new Chunk<>(low - firstShift, originalLines),
+                        new Chunk<>(low + secondShift, revisedLines)));
+            }
+            firstShift += clusterFirstShift;
+            secondShift += clusterSecondShift;
+            i = ci;
+            j = cj;
+        }
+        return result;
+    }
+
+    /**
+     * Composes a series of consecutive patches into a single equivalent patch. Each patch has to be based on the text
+     * the previous one produces. The patches are composed pairwise in a balanced way, so long series do not repeatedly
+     * rewrite an ever growing accumulated patch.
+     *
+     * @param patches the patches in the order they would be applied
+     * @return the composed patch, an empty patch if no patches are given
+     */
+    public static <T> Patch<T> compose(List<Patch<T>> patches) {
+        if (patches.isEmpty()) {
+            return new Patch<>();
+        }
+        List<Patch<T>> level = patches;
+        while (level.size() > 1) {
+            List<Patch<T>> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int k = 0; k + 1 < level.size(); k += 2) {
+                next.add(compose(level.get(k), level.get(k + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                next.add(level.get(level.size() - 1));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    /**
+     * Transforms a patch over a concurrent patch based on the same original text. The resulting patch applies to the
+     * text produced by the concurrent patch and has the same effect the given patch has on the original text. Only the
+     * positions of the deltas are shifted, no diff is computed. Deltas contained identically in both patches are
+     * dropped, because the concurrent patch already applied them.
+     *
+     * @param patch the patch to transform
+     * @param over the concurrent patch that is applied first
+     * @return the transformed patch
+     * @throws PatchConflictException if a delta of the patch overlaps a different delta of the concurrent patch
+     */
+    public static <T> Patch<T> transform(Patch<T> patch, Patch<T> over) throws PatchConflictException {
+        requireNoMoves(patch);
+        requireNoMoves(over);
+        List<Delta<T>> deltas = patch.getDeltas();
+        List<Delta<T>> overDeltas = over.getDeltas();
+        Patch<T> result = new Patch<>(deltas.size());
+        int k = 0;
+        int shift = 0;
+        int resultShift = 0;
+        for (Delta<T> delta : deltas) {
+            Chunk<T> original = delta.getOriginal();
+            int start = original.getPosition();
+            int end = start + original.size();
+            while (k < overDeltas.size() && isBefore(overDeltas.get(k).getOriginal(), original)) {
+                Delta<T> overDelta = overDeltas.get(k++);
+                shift += overDelta.getRevised().size() - overDelta.getOriginal().size();
+            }
+            if (k < overDeltas.size() && original.equals(overDeltas.get(k).getOriginal())
+                    && delta.getRevised().getLines().equals(overDeltas.get(k).getRevised().getLines())) {
+                continue;
+            }
+            for (int m = k; m < overDeltas.size() && overDeltas.get(m).getOriginal().getPosition() <= end; m++) {
+                Chunk<T> overOriginal = overDeltas.get(m).getOriginal();
+                if (overlaps(start, end, overOriginal.getPosition(), overOriginal.getPosition() + overOriginal.size())) {
+                    throw new PatchConflictException("Conflicting deltas: " + delta + " and " + overDeltas.get(m),
+                            delta, overDeltas.get(m));
+                }
+            }
+            // the revised position follows from the new original position and the deltas kept so far, the size change
+            // of dropped deltas is already part of the shift
+            result.addDelta(buildDelta(new Chunk<>(start + shift, original.getLines()),
+                    new Chunk<>(start + shift + resultShift, delta.getRevised().getLines())));
+            resultShift += delta.getRevised().size() - original.size();
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the chunk lies completely before the other one. Two insertions at the same position are not ordered.
+     */
+    private static <T> boolean isBefore(Chunk<T> chunk, Chunk<T> other) {
+        return chunk.getPosition() + chunk.size() <= other.getPosition()
+                && !(chunk.size() == 0 && other.size() == 0 && chunk.getPosition() == other.getPosition());
+    }
+
+    /**
+     * Checks if the ranges [start1, end1) and [start2, end2) overlap. Empty ranges, which stand for insertions, overlap
+     * ranges strictly containing their position and other empty ranges at the same position.
+     */
+    static boolean overlaps(int start1, int end1, int start2, int end2) {
+        return start1 < end2 && start2 < end1
+                || start1 == end1 && start2 == end2 && start1 == start2;
+    }
+
+    /**
+     * Copies the lines within the given range out of the chunks covering it. The chunks are sorted by position.
+     */
+    private static <T> void copyLines(List<Chunk<T>> chunks, int from, int to, List<T> target) {
+        for (Chunk<T> chunk : chunks) {
+            if (chunk.getPosition() >= to) {
+                break;
+            }
+            int start = Math.max(from, chunk.getPosition());
+            int end = Math.min(to, chunk.getPosition() + chunk.size());
+            if (start < end) {
+                target.addAll(chunk.getLines().subList(start - chunk.getPosition(), end - chunk.getPosition()));
+            }
+        }
+    }
+
+    /**
+     * Creates the delta matching the given chunks: an insert if there are no original lines, a delete if there are no
+     * revised lines and a change otherwise.
+     */
+    static <T> Delta<T> buildDelta(Chunk<T> original, Chunk<T> revised) {
+        if (original.size() == 0) {
+            return new InsertDelta<>(original, revised);
+        } else if (revised.size() == 0) {
+            return new DeleteDelta<>(original, revised);
+        }
+        return new ChangeDelta<>(original, revised);
+    }
+
     public static <T> Patch<T> generate(List<T> original, List<T> revised, List<Change> changes) {
         Patch<T> patch = new Patch<>(changes.size());
         for (Change change : changes) {
             Chunk<T> orgChunk = new Chunk<>(change.startOriginal, new ArrayList<>(original.subList(change.startOriginal, change.endOriginal)));
             Chunk<T> revChunk = new Chunk<>(change.startRevised, new ArrayList<>(revised.subList(change.startRevised, change.endRevised)));
+            // capture the hashes used to verify the chunk while its lines are at hand
+            orgChunk.getHash();
             switch (change.deltaType) {
                 case DELETE:
                     patch.addDelta(new DeleteDelta<>(orgChunk, revChunk));
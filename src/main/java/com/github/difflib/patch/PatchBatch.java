@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Applies patches to many targets in parallel. A failing target does not stop the batch, its
+ * {@link PatchFailedException} is reported within its {@link BatchPatchResult} instead.
+ *
+ * <p>
+ * The deltas of each patch are sorted once before the work is handed out and are then shared read-only by all workers.
+ * A patch must not be modified while a batch applying it is running.
+ * </p>
+ */
+public final class PatchBatch {
+
+    /**
+     * Applies one patch to all targets, using a thread pool bounded by the number of available processors.
+     *
+     * @param patch the patch to apply
+     * @param targets the texts to patch
+     * @return one result per target, in the order of the targets
+     * @throws InterruptedException if the current thread was interrupted while waiting for the results
+     */
+    public static <T> List<BatchPatchResult<T>> applyTo(Patch<T> patch, List<List<T>> targets) throws InterruptedException {
+        return applyTo(Collections.nCopies(targets.size(), patch), targets);
+    }
+
+    /**
+     * Applies one patch to all targets using the given executor. The executor is not shut down. On newer JDKs a virtual
+     * thread per task executor can be used.
+     *
+     * @param patch the patch to apply
+     * @param targets the texts to patch
+     * @param executor the executor to run the work on
+     * @return one result per target, in the order of the targets
+     * @throws InterruptedException if the current thread was interrupted while waiting for the results
+     */
+    public static <T> List<BatchPatchResult<T>> applyTo(Patch<T> patch, List<List<T>> targets,
+            ExecutorService executor) throws InterruptedException {
+        return applyTo(Collections.nCopies(targets.size(), patch), targets, executor);
+    }
+
+    /**
+     * Applies each patch to the target at the same index, using a thread pool bounded by the number of available
+     * processors.
+     *
+     * @param patches the patches to apply
+     * @param targets the texts to patch, one per patch
+     * @return one result per target, in the order of the targets
+     * @throws InterruptedException if the current thread was interrupted while waiting for the results
+     */
+    public static <T> List<BatchPatchResult<T>> applyTo(List<Patch<T>> patches, List<List<T>> targets)
+            throws InterruptedException {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), targets.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return applyTo(patches, targets, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies each patch to the target at the same index using the given executor. The executor is not shut down. On
+     * newer JDKs a virtual thread per task executor can be used.
+     *
+     * @param patches the patches to apply
+     * @param targets the texts to patch, one per patch
+     * @param executor the executor to run the work on
+     * @return one result per target, in the order of the targets
+     * @throws InterruptedException if the current thread was interrupted while waiting for the results
+     */
+    public static <T> List<BatchPatchResult<T>> applyTo(List<Patch<T>> patches, List<List<T>> targets,
+            ExecutorService executor) throws InterruptedException {
+        if (patches.size() != targets.size()) {
+            throw new IllegalArgumentException("the number of patches and targets differ");
+        }
+        // sort the deltas of each distinct patch once, so the workers only read them
+        List<List<Delta<T>>> sortedDeltas = new ArrayList<>(patches.size());
+        Patch<T> lastPatch = null;
+        List<Delta<T>> lastDeltas = null;
+        for (Patch<T> patch : patches) {
+            if (patch != lastPatch) {
+                lastPatch = patch;
+                lastDeltas = Collections.unmodifiableList(new ArrayList<>(patch.getDeltas()));
+                for (Delta<T> delta : lastDeltas) {
+                    delta.getOriginal().getHash();
+                }
+            }
+            sortedDeltas.add(lastDeltas);
+        }
+
+        List<Future<BatchPatchResult<T>>> futures = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            futures.add(executor.submit(task(i, targets.get(i), sortedDeltas.get(i))));
+        }
+        List<BatchPatchResult<T>> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<BatchPatchResult<T>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("applying a patch failed unexpectedly", e.getCause());
+        } finally {
+            for (Future<BatchPatchResult<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static <T> Callable<BatchPatchResult<T>> task(int index, List<T> target, List<Delta<T>> sortedDeltas) {
+        return () -> {
+            try {
+                return new BatchPatchResult<>(index, Patch.applyTo(target, sortedDeltas), null);
+            } catch (PatchFailedException e) {
+                return new BatchPatchResult<>(index, null, e);
+            }
+        };
+    }
+
+    private PatchBatch() {
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+/**
+ * Describes two patches of the same original text changing overlapping parts of it.
+ */
+public final class PatchConflict {
+
+    private final int firstPatch;
+    private final int secondPatch;
+    private final Delta<?> firstDelta;
+    private final Delta<?> secondDelta;
+
+    public PatchConflict(int firstPatch, Delta<?> firstDelta, int secondPatch, Delta<?> secondDelta) {
+        this.firstPatch = firstPatch;
+        this.secondPatch = secondPatch;
+        this.firstDelta = firstDelta;
+        this.secondDelta = secondDelta;
+    }
+
+    /**
+     * @return the index of the first patch, always smaller than {@link #getSecondPatch()}
+     */
+    public int getFirstPatch() {
+        return firstPatch;
+    }
+
+    /**
+     * @return the index of the second patch
+     */
+    public int getSecondPatch() {
+        return secondPatch;
+    }
+
+    /**
+     * @return a delta of the first patch overlapping {@link #getSecondDelta()}
+     */
+    public Delta<?> getFirstDelta() {
+        return firstDelta;
+    }
+
+    /**
+     * @return a delta of the second patch overlapping {@link #getFirstDelta()}
+     */
+    public Delta<?> getSecondDelta() {
+        return secondDelta;
+    }
+
+    @Override
+    public String toString() {
+        return "PatchConflict{" + "patches=" + firstPatch + " and " + secondPatch
+                + ", deltas=" + firstDelta + " and " + secondDelta + '}';
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds the patches of a set of concurrent patches, all based on the same original text, that change overlapping parts
+ * of it. All original chunks are swept once in order of their positions, instead of trying to apply each pair of
+ * patches. Since the chunks of one patch do not overlap, only the last chunk of each other patch reaching the current
+ * position has to be checked. The cost is therefore O(d log d + d k) for d deltas, where k is the largest number of
+ * patches having deltas within reach of the same position, usually far less than the number of patches.
+ */
+public final class PatchConflictDetector {
+
+    /**
+     * Finds all pairs of conflicting patches. Two patches conflict if their original chunks overlap or if fewer than
+     * {@code contextMargin} untouched lines lie between them. Insertions at the same position are conflicts as well.
+     * Deltas that only touch, like an insertion right before or behind lines changed by the other patch, have no line
+     * between them, so they conflict for a {@code contextMargin} of at least 1, but not for 0. Moves are checked as
+     * their delete and insert part, which are the deltas reported for them.
+     *
+     * @param patches the patches to check, all based on the same original text
+     * @param contextMargin the number of context lines that have to stay untouched between deltas of different patches
+     * @return one conflict for each pair of conflicting patches, ordered by the position it was found at
+     */
+    public static <T> List<PatchConflict> findConflicts(List<Patch<T>> patches, int contextMargin) {
+        if (contextMargin < 0) {
+            throw new IllegalArgumentException("contextMargin must not be negative");
+        }
+        List<Interval<T>> intervals = new ArrayList<>();
+        for (int i = 0; i < patches.size(); i++) {
+            for (Delta<T> delta : patches.get(i).getDeltasWithoutMoves(true)) {
+                Chunk<T> original = delta.getOriginal();
+                intervals.add(new Interval<>(i, delta, original.getPosition(),
+                        original.getPosition() + original.size() + contextMargin));
+            }
+        }
+        intervals.sort(Comparator.comparingInt((Interval<T> interval) -> interval.start)
+                .thenComparingInt(interval -> interval.end));
+
+        List<PatchConflict> conflicts = new ArrayList<>();
+        Set<Long> conflictingPairs = new HashSet<>();
+        // the intervals reaching the current position, by patch; within a patch their starts and ends are both sorted
+        Map<Integer, ArrayDeque<Interval<T>>> active = new LinkedHashMap<>();
+        PriorityQueue<Interval<T>> byEnd = new PriorityQueue<>(Comparator.comparingInt(interval -> interval.end));
+        for (Interval<T> interval : intervals) {
+            while (!byEnd.isEmpty() && byEnd.peek().end < interval.start) {
+                Interval<T> expired = byEnd.poll();
+                ArrayDeque<Interval<T>> patchIntervals = active.get(expired.patch);
+                patchIntervals.pollFirst();
+                if (patchIntervals.isEmpty()) {
+                    active.remove(expired.patch);
+                }
+            }
+            for (Map.Entry<Integer, ArrayDeque<Interval<T>>> entry : active.entrySet()) {
+                int otherPatch = entry.getKey();
+                if (otherPatch == interval.patch) {
+                    continue;
+                }
+                int first = Math.min(otherPatch, interval.patch);
+                int second = Math.max(otherPatch, interval.patch);
+                if (conflictingPairs.contains((long) first << 32 | second)) {
+                    continue;
+                }
+                Interval<T> other = findOverlapping(entry.getValue(), interval);
+                if (other != null) {
+                    conflictingPairs.add((long) first << 32 | second);
+                    if (first == other.patch) {
+                        conflicts.add(new PatchConflict(first, other.delta, second, interval.delta));
+                    } else {
+                        conflicts.add(new PatchConflict(first, interval.delta, second, other.delta));
+                    }
+                }
+            }
+            active.computeIfAbsent(interval.patch, k -> new ArrayDeque<>()).addLast(interval);
+            byEnd.add(interval);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Finds an interval of another patch overlapping the given one, which starts at or behind all of them. The last
+     * interval reaches farthest, so it is the only candidate unless the given interval is an empty insertion, which
+     * also overlaps empty intervals at its position.
+     */
+    private static <T> Interval<T> findOverlapping(ArrayDeque<Interval<T>> patchIntervals, Interval<T> interval) {
+        Interval<T> last = patchIntervals.peekLast();
+        if (Patch.overlaps(last.start, last.end, interval.start, interval.end)) {
+            return last;
+        }
+        if (interval.start == interval.end) {
+            Iterator<Interval<T>> it = patchIntervals.descendingIterator();
+            while (it.hasNext()) {
+                Interval<T> other = it.next();
+                if (other.end < interval.start) {
+                    break;
+                }
+                if (Patch.overlaps(other.start, other.end, interval.start, interval.end)) {
+                    return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static final class Interval<T> {
+
+        private final int patch;
+        private final Delta<T> delta;
+        private final int start;
+        private final int end;
+
+        Interval(int patch, Delta<T> delta, int start, int end) {
+            this.patch = patch;
+            this.delta = delta;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private PatchConflictDetector() {
+    }
+}
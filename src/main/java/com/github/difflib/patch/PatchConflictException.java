@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+/**
+ * Thrown whenever two patches based on the same text change overlapping parts of it.
+ */
+public class PatchConflictException extends PatchFailedException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Delta<?> delta;
+    private final transient Delta<?> conflictingDelta;
+
+    public PatchConflictException(String msg, Delta<?> delta, Delta<?> conflictingDelta) {
+        super(msg);
+        this.delta = delta;
+        this.conflictingDelta = conflictingDelta;
+    }
+
+    /**
+     * @return the delta that could not be transformed
+     */
+    public Delta<?> getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return the delta of the other patch it conflicts with
+     */
+    public Delta<?> getConflictingDelta() {
+        return conflictingDelta;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.patch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * An index over the deltas of a patch, answering line number mappings between the original and the revised text and
+ * lookups of the deltas touching a range of lines in O(log d) for d deltas. Since the deltas of a patch do not overlap,
+ * their sorted start and end positions together with the prefix sums of their size changes are all it needs.
+ *
+ * <p>
+ * Moves are indexed as their delete and insert part, see {@link Patch#getDeltasWithoutMoves(boolean)}, but a moved
+ * line is still mapped to its position on the other side.
+ * </p>
+ *
+ * <p>
+ * The index is a snapshot. Deltas added to the patch afterwards are not reflected.
+ * </p>
+ *
+ * @param T The type of the compared elements in the 'lines'.
+ */
+public final class PatchIndex<T> {
+
+    private final List<Delta<T>> deltas;
+    private final int[] originalStarts;
+    private final int[] originalEnds;
+    private final int[] revisedStarts;
+    private final int[] revisedEnds;
+    /**
+     * The difference between revised and original positions behind each delta.
+     */
+    private final int[] shifts;
+    /**
+     * The original and revised positions and the sizes of the moved blocks, sorted by original and by revised
+     * position.
+     */
+    private final int[][] movesByOriginal;
+    private final int[][] movesByRevised;
+
+    public PatchIndex(Patch<T> patch) {
+        deltas = Collections.unmodifiableList(new ArrayList<>(patch.getDeltasWithoutMoves(true)));
+        List<int[]> moves = new ArrayList<>();
+        for (Delta<T> delta : patch.getDeltas()) {
+            if (delta instanceof MoveDelta) {
+                moves.add(new int[]{delta.getOriginal().getPosition(), delta.getRevised().getPosition(),
+                    delta.getOriginal().size()});
+            }
+        }
+        movesByOriginal = moves.toArray(new int[moves.size()][]);
+        movesByRevised = moves.toArray(new int[moves.size()][]);
+        Arrays.sort(movesByRevised, comparingInt((int[] move) -> move[1]));
+        int size = deltas.size();
+        originalStarts = new int[size];
+        originalEnds = new int[size];
+        revisedStarts = new int[size];
+        revisedEnds = new int[size];
+        shifts = new int[size];
+        int shift = 0;
+        for (int i = 0; i < size; i++) {
+            Delta<T> delta = deltas.get(i);
+            originalStarts[i] = delta.getOriginal().getPosition();
+            originalEnds[i] = originalStarts[i] + delta.getOriginal().size();
+            revisedStarts[i] = originalStarts[i] + shift;
+            revisedEnds[i] = revisedStarts[i] + delta.getRevised().size();
+            shift += delta.getRevised().size() - delta.getOriginal().size();
+            shifts[i] = shift;
+        }
+    }
+
+    /**
+     * Maps a line of the original text to the revised text.
+     *
+     * @param originalLine the zero based line of the original text
+     * @return the line within the revised text, or -1 if the line was changed or deleted
+     */
+    public int toRevised(int originalLine) {
+        int k = lastStartingAtOrBefore(originalStarts, originalLine);
+        if (k < 0) {
+            return originalLine;
+        }
+        if (originalLine < originalEnds[k]) {
+            return moved(movesByOriginal, 0, 1, originalLine);
+        }
+        return originalLine + shifts[k];
+    }
+
+    /**
+     * Maps a line of the revised text to the original text.
+     *
+     * @param revisedLine the zero based line of the revised text
+     * @return the line within the original text, or -1 if the line was changed or inserted
+     */
+    public int toOriginal(int revisedLine) {
+        int k = lastStartingAtOrBefore(revisedStarts, revisedLine);
+        if (k < 0) {
+            return revisedLine;
+        }
+        if (revisedLine < revisedEnds[k]) {
+            return moved(movesByRevised, 1, 0, revisedLine);
+        }
+        return revisedLine - shifts[k];
+    }
+
+    /**
+     * Finds the deltas touching the given range of the original text. A delta touches the range if its original chunk
+     * intersects it, or if it inserts lines at a position within {@code [from, to]}.
+     *
+     * @param from the first line of the range
+     * @param to the line behind the last line of the range
+     * @return the touching deltas, sorted by position
+     */
+    public List<Delta<T>> findOriginalDeltas(int from, int to) {
+        return find(originalStarts, originalEnds, from, to);
+    }
+
+    /**
+     * Finds the deltas touching the given range of the revised text. A delta touches the range if its revised chunk
+     * intersects it, or if it deletes lines at a position within {@code [from, to]}.
+     *
+     * @param from the first line of the range
+     * @param to the line behind the last line of the range
+     * @return the touching deltas, sorted by position
+     */
+    public List<Delta<T>> findRevisedDeltas(int from, int to) {
+        return find(revisedStarts, revisedEnds, from, to);
+    }
+
+    /**
+     * @return the indexed deltas, sorted by position
+     */
+    public List<Delta<T>> getDeltas() {
+        return deltas;
+    }
+
+    private List<Delta<T>> find(int[] starts, int[] ends, int from, int to) {
+        List<Delta<T>> result = new ArrayList<>();
+        // the ends are sorted as well, since the deltas do not overlap
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int k = low; k < starts.length && starts[k] <= to; k++) {
+            boolean touches = starts[k] == ends[k] ? from <= starts[k] : starts[k] < to && ends[k] > from;
+            if (touches) {
+                result.add(deltas.get(k));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps a line within a moved block to the other side.
+     *
+     * @return the line on the other side, or -1 if the line is not moved
+     */
+    private static int moved(int[][] moves, int from, int to, int line) {
+        int low = 0;
+        int high = moves.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int[] move = moves[mid];
+            if (line < move[from]) {
+                high = mid - 1;
+            } else if (line >= move[from] + move[2]) {
+                low = mid + 1;
+            } else {
+                return move[to] + line - move[from];
+            }
+        }
+        return -1;
+    }
+
+    private static int lastStartingAtOrBefore(int[] starts, int line) {
+        int low = 0;
+        int high = starts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= line) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.similarity;
+
+/**
+ * A file of the revised tree detected as renamed or copied file of the original tree.
+ */
+public final class FileRename {
+
+    private final String fromPath;
+    private final String toPath;
+    private final double similarity;
+    private final boolean copy;
+
+    public FileRename(String fromPath, String toPath, double similarity, boolean copy) {
+        this.fromPath = fromPath;
+        this.toPath = toPath;
+        this.similarity = similarity;
+        this.copy = copy;
+    }
+
+    public String getFromPath() {
+        return fromPath;
+    }
+
+    public String getToPath() {
+        return toPath;
+    }
+
+    /**
+     * @return the fraction of unchanged lines, relative to the larger of both files
+     */
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    /**
+     * @return true if the original file still exists or is renamed to another file
+     */
+    public boolean isCopy() {
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return (copy ? "[copy " : "[rename ") + fromPath + " to " + toPath + ", similarity: " + similarity + "]";
+    }
+}
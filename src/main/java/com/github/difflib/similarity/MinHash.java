@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.similarity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes MinHash signatures of texts, seen as sets of lines. The fraction of equal values of two signatures is an
+ * estimate of the Jaccard similarity of the line sets, with a standard error of about
+ * {@code 1 / sqrt(numHashes)}.
+ */
+public final class MinHash {
+
+    private static final long DEFAULT_SEED = 0x2545F4914F6CDD1DL;
+
+    private final long[] seeds;
+
+    /**
+     * Creates a MinHash using the given number of hash functions and a fixed seed, so signatures computed by different
+     * instances are comparable.
+     *
+     * @param numHashes the number of hash functions, which is the size of the signatures
+     */
+    public MinHash(int numHashes) {
+        this(numHashes, DEFAULT_SEED);
+    }
+
+    /**
+     * Creates a MinHash using the given number of hash functions derived from the seed. Only signatures computed using
+     * the same number of hashes and seed are comparable.
+     *
+     * @param numHashes the number of hash functions, which is the size of the signatures
+     * @param seed the seed of the hash functions
+     */
+    public MinHash(int numHashes, long seed) {
+        if (numHashes < 1) {
+            throw new IllegalArgumentException("numHashes must be positive");
+        }
+        seeds = new long[numHashes];
+        long state = seed;
+        for (int i = 0; i < numHashes; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(state);
+        }
+    }
+
+    public int getNumHashes() {
+        return seeds.length;
+    }
+
+    /**
+     * Computes the signature of the given lines. Each value is the minimum of one hash function over all lines.
+     *
+     * @param lines the lines of a text
+     * @return the signature, having {@link #getNumHashes()} values
+     */
+    public long[] signature(Collection<String> lines) {
+        long[] signature = newSignature();
+        for (String line : lines) {
+            update(signature, hash(line));
+        }
+        return signature;
+    }
+
+    /**
+     * Computes the signature of the given lines seen as multiset, the k-th occurrence of a line being an element of its
+     * own. The estimated similarity is then the multiset Jaccard similarity, the sum of the minimal divided by the sum
+     * of the maximal number of occurrences of each line.
+     *
+     * @param lines the lines of a text
+     * @return the signature, having {@link #getNumHashes()} values
+     */
+    public long[] multisetSignature(Collection<String> lines) {
+        long[] signature = newSignature();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (String line : lines) {
+            int occurrence = occurrences.merge(line, 1, Integer::sum);
+            update(signature, mix(hash(line) + occurrence * 0x9E3779B97F4A7C15L));
+        }
+        return signature;
+    }
+
+    long[] newSignature() {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        return signature;
+    }
+
+    /**
+     * Adds the element of the given 64 bit hash to the signature.
+     */
+    void update(long[] signature, long hash) {
+        for (int i = 0; i < seeds.length; i++) {
+            signature[i] = Math.min(signature[i], mix(hash ^ seeds[i]));
+        }
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two texts from their signatures.
+     *
+     * @return the fraction of equal values, between 0 and 1
+     */
+    public static double estimateSimilarity(long[] signature, long[] other) {
+        if (signature.length != other.length) {
+            throw new IllegalArgumentException("signatures of different sizes are not comparable");
+        }
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / signature.length;
+    }
+
+    /**
+     * Computes a 64 bit hash of the line, since the 32 bit hash codes of strings collide too often for large sets.
+     */
+    static long hash(String line) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < line.length(); i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of the SplitMix64 generator, scattering the bits of the value.
+     */
+    static long mix(long value) {
+        long z = value;
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+}
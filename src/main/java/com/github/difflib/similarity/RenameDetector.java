@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.similarity;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Delta;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Detects renamed and copied files between two trees, like git. Comparing every added file with every removed file by
+ * a full diff is quadratic, so each file gets a MinHash signature of the multiset of its lines first. The signatures
+ * are split into bands, which are indexed by their hash (locality sensitive hashing). Only files sharing at least one
+ * band with an added file are candidates, and only candidates with an estimated similarity near the threshold are
+ * diffed.
+ *
+ * <p>
+ * The threshold is a fraction {@code s} of unchanged lines, while the signatures estimate the Jaccard similarity
+ * {@code J} of the line multisets. Files with {@code u} unchanged lines out of {@code m} and {@code n} lines share at
+ * least {@code u} lines, so {@code J >= u / (m + n - u) >= s / (2 - s)}, for instance 1/3 for 50% unchanged lines.
+ * With {@code b} bands of {@code r} rows a pair of Jaccard similarity {@code J} becomes a candidate with probability
+ * {@code 1 - (1 - J^r)^b}. Unless given explicitly, bands and rows are chosen so pairs at the threshold are candidates
+ * with a probability of at least 99%, using at most 128 hash values.
+ * </p>
+ */
+public final class RenameDetector {
+
+    private static final int MAX_HASHES = 128;
+    private static final double CANDIDATE_PROBABILITY = 0.99;
+    /**
+     * Candidates estimated this many standard errors below the Jaccard threshold are still diffed.
+     */
+    private static final double ESTIMATE_TOLERANCE = 3;
+
+    private final double threshold;
+    private final double minEstimate;
+    private final int bands;
+    private final int rows;
+    private final MinHash minHash;
+
+    /**
+     * Creates a detector reporting files with at least 50% of unchanged lines, like git.
+     */
+    public RenameDetector() {
+        this(0.5);
+    }
+
+    /**
+     * Creates a detector choosing the bands and rows of the signatures for the given threshold.
+     *
+     * @param threshold the minimal fraction of unchanged lines, relative to the larger file
+     */
+    public RenameDetector(double threshold) {
+        this(threshold, bandsAndRows(toJaccard(threshold)));
+    }
+
+    private RenameDetector(double threshold, int[] bandsAndRows) {
+        this(threshold, bandsAndRows[0], bandsAndRows[1]);
+    }
+
+    /**
+     * Creates a detector.
+     *
+     * @param threshold the minimal fraction of unchanged lines, relative to the larger file
+     * @param bands the number of bands of the signatures
+     * @param rows the number of values of each band
+     */
+    public RenameDetector(double threshold, int bands, int rows) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("threshold must be within (0, 1]");
+        }
+        this.threshold = threshold;
+        this.bands = bands;
+        this.rows = rows;
+        this.minHash = new MinHash(bands * rows);
+        double jaccardThreshold = toJaccard(threshold);
+        this.minEstimate = jaccardThreshold
+                - ESTIMATE_TOLERANCE * Math.sqrt(jaccardThreshold * (1 - jaccardThreshold) / (bands * rows));
+    }
+
+    /**
+     * Converts a fraction of unchanged lines into the minimal Jaccard similarity of the line multisets.
+     */
+    static double toJaccard(double threshold) {
+        return threshold / (2 - threshold);
+    }
+
+    /**
+     * Chooses the most selective bands and rows making pairs of the given Jaccard similarity candidates with
+     * {@link #CANDIDATE_PROBABILITY}, using at most {@link #MAX_HASHES} hash values.
+     */
+    static int[] bandsAndRows(double jaccard) {
+        int[] best = {MAX_HASHES, 1};
+        for (int r = 1; r <= MAX_HASHES; r++) {
+            double bandProbability = Math.pow(jaccard, r);
+            int b = bandProbability >= 1 ? 1
+                    : (int) Math.ceil(Math.log(1 - CANDIDATE_PROBABILITY) / Math.log(1 - bandProbability));
+            if ((long) b * r > MAX_HASHES) {
+                break;
+            }
+            best = new int[]{b, r};
+        }
+        return best;
+    }
+
+    /**
+     * Detects renames of removed files to added files.
+     *
+     * @param removed the lines of the files only existing in the original tree, by path
+     * @param added the lines of the files only existing in the revised tree, by path
+     * @return the renames, ordered by the path of the added file
+     */
+    public List<FileRename> detect(Map<String, List<String>> removed, Map<String, List<String>> added)
+            throws DiffException {
+        return detect(removed, added, Collections.emptyMap());
+    }
+
+    /**
+     * Detects renames of removed files and copies of any file to added files. Each removed file is renamed at most
+     * once, further added files similar to it are copies. Files of {@code copySources} are only copied.
+     *
+     * @param removed the lines of the files only existing in the original tree, by path
+     * @param added the lines of the files only existing in the revised tree, by path
+     * @param copySources the lines of files existing in both trees, by path
+     * @return the renames and copies, ordered by the path of the added file
+     */
+    public List<FileRename> detect(Map<String, List<String>> removed, Map<String, List<String>> added,
+            Map<String, List<String>> copySources) throws DiffException {
+        List<String> sourcePaths = new ArrayList<>();
+        List<List<String>> sources = new ArrayList<>();
+        for (Map<String, List<String>> files : Arrays.asList(removed, copySources)) {
+            for (Map.Entry<String, List<String>> file : new TreeMap<>(files).entrySet()) {
+                if (!file.getValue().isEmpty()) {
+                    sourcePaths.add(file.getKey());
+                    sources.add(file.getValue());
+                }
+            }
+        }
+        long[][] signatures = sources.parallelStream().map(minHash::multisetSignature).toArray(long[][]::new);
+
+        Map<BandKey, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < signatures.length; i++) {
+            for (int band = 0; band < bands; band++) {
+                index.computeIfAbsent(new BandKey(signatures[i], band, rows), k -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        List<FileRename> pairs = new ArrayList<>();
+        for (Map.Entry<String, List<String>> file : new TreeMap<>(added).entrySet()) {
+            List<String> lines = file.getValue();
+            if (lines.isEmpty()) {
+                continue;
+            }
+            long[] signature = minHash.multisetSignature(lines);
+            BitSet candidates = new BitSet(sources.size());
+            for (int band = 0; band < bands; band++) {
+                for (int candidate : index.getOrDefault(new BandKey(signature, band, rows),
+                        Collections.emptyList())) {
+                    candidates.set(candidate);
+                }
+            }
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (MinHash.estimateSimilarity(signature, signatures[i]) < minEstimate) {
+                    continue;
+                }
+                double similarity = similarity(sources.get(i), lines);
+                if (similarity >= threshold) {
+                    pairs.add(new FileRename(sourcePaths.get(i), file.getKey(), similarity, !removed.containsKey(
+                            sourcePaths.get(i))));
+                }
+            }
+        }
+
+        // pair the most similar files first
+        pairs.sort(comparingDouble(FileRename::getSimilarity).reversed()
+                .thenComparing(FileRename::getToPath).thenComparing(FileRename::getFromPath));
+        Map<String, FileRename> result = new TreeMap<>();
+        Set<String> renamed = new HashSet<>();
+        boolean copies = !copySources.isEmpty();
+        for (FileRename pair : pairs) {
+            if (result.containsKey(pair.getToPath())) {
+                continue;
+            }
+            if (!pair.isCopy() && !renamed.contains(pair.getFromPath())) {
+                renamed.add(pair.getFromPath());
+                result.put(pair.getToPath(), pair);
+            } else if (copies) {
+                result.put(pair.getToPath(), new FileRename(pair.getFromPath(), pair.getToPath(),
+                        pair.getSimilarity(), true));
+            }
+        }
+        List<FileRename> renames = new ArrayList<>(result.values());
+        renames.sort(comparing(FileRename::getToPath));
+        return renames;
+    }
+
+    /**
+     * Computes the fraction of unchanged lines relative to the larger of both texts using a full diff.
+     */
+    static double similarity(List<String> original, List<String> revised) throws DiffException {
+        int unchanged = original.size();
+        for (Delta<String> delta : DiffUtils.diff(original, revised).getDeltas()) {
+            unchanged -= delta.getOriginal().size();
+        }
+        return (double) unchanged / Math.max(original.size(), revised.size());
+    }
+
+    /**
+     * The values of one band of a signature.
+     */
+    private static final class BandKey {
+
+        private final long[] signature;
+        private final int band;
+        private final int rows;
+        private final int hash;
+
+        BandKey(long[] signature, int band, int rows) {
+            this.signature = signature;
+            this.band = band;
+            this.rows = rows;
+            int h = band;
+            for (int i = band * rows; i < (band + 1) * rows; i++) {
+                h = 31 * h + Long.hashCode(signature[i]);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BandKey)) {
+                return false;
+            }
+            BandKey other = (BandKey) obj;
+            if (band != other.band || hash != other.hash) {
+                return false;
+            }
+            for (int i = band * rows; i < (band + 1) * rows; i++) {
+                if (signature[i] != other.signature[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.similarity;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A fixed size sketch of a text for estimating its similarity to other texts, without the texts themselves. The
+ * sketch holds the lowest {@code bits} bits of each value of a {@link MinHash} signature of the lines or of the
+ * shingles of consecutive lines of the text. Sketches are serializable, so they can be computed once per document and
+ * cached, also in the compact form of {@link #toBytes()}.
+ *
+ * <p>
+ * The estimate of the Jaccard similarity {@code J} takes O(numHashes) time. Its standard error is about
+ * {@code sqrt(J * (1 - J) / numHashes)}, at most {@code 0.5 / sqrt(numHashes)}. Using fewer bits per value (b-bit
+ * minwise hashing) increases the error by a factor of about {@code sqrt(1 + 2^-bits / (1 - J))}, but shrinks the
+ * sketch considerably.
+ * </p>
+ */
+public final class SimilaritySketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int numHashes;
+    private final int bits;
+    private final int shingleSize;
+    private final long[] values;
+
+    private SimilaritySketch(int numHashes, int bits, int shingleSize, long[] values) {
+        this.numHashes = numHashes;
+        this.bits = bits;
+        this.shingleSize = shingleSize;
+        this.values = values;
+    }
+
+    /**
+     * Creates a sketch of 128 full 64 bit values of the lines of the text.
+     *
+     * @param lines the lines of the text
+     * @return the sketch
+     */
+    public static SimilaritySketch of(List<String> lines) {
+        return of(lines, 1, 128, 64);
+    }
+
+    /**
+     * Creates a sketch of the text.
+     *
+     * @param lines the lines of the text
+     * @param shingleSize the number of consecutive lines hashed together, 1 to hash single lines
+     * @param numHashes the number of values of the sketch
+     * @param bits the number of bits kept of each value, one of 1, 2, 4, 8, 16, 32 or 64
+     * @return the sketch
+     */
+    public static SimilaritySketch of(List<String> lines, int shingleSize, int numHashes, int bits) {
+        checkParameters(shingleSize, numHashes, bits);
+        MinHash minHash = new MinHash(numHashes);
+        long[] signature = minHash.newSignature();
+        long[] lineHashes = new long[shingleSize];
+        for (int i = 0; i < lines.size(); i++) {
+            lineHashes[i % shingleSize] = MinHash.hash(lines.get(i));
+            if (i + 1 >= shingleSize) {
+                minHash.update(signature, shingleHash(lineHashes, i + 1));
+            }
+        }
+        if (lines.size() < shingleSize && !lines.isEmpty()) {
+            // a text shorter than a shingle is hashed as a whole
+            minHash.update(signature, shingleHash(lineHashes, lines.size()));
+        }
+
+        long[] values = new long[valueCount(numHashes, bits)];
+        int perWord = 64 / bits;
+        long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        for (int i = 0; i < numHashes; i++) {
+            values[i / perWord] |= (signature[i] & mask) << i % perWord * bits;
+        }
+        return new SimilaritySketch(numHashes, bits, shingleSize, values);
+    }
+
+    private static void checkParameters(int shingleSize, int numHashes, int bits) {
+        if (shingleSize < 1) {
+            throw new IllegalArgumentException("shingleSize must be positive");
+        }
+        if (numHashes < 1) {
+            throw new IllegalArgumentException("numHashes must be positive");
+        }
+        if (bits < 1 || bits > 64 || Integer.bitCount(bits) != 1) {
+            throw new IllegalArgumentException("bits must be a power of two up to 64");
+        }
+    }
+
+    /**
+     * Computes the number of longs holding the given number of values of the given bits.
+     */
+    private static int valueCount(int numHashes, int bits) {
+        int perWord = 64 / bits;
+        return (numHashes + perWord - 1) / perWord;
+    }
+
+    /**
+     * Combines the hashes of the last lines in order, the array is used as ring buffer ending at {@code end}.
+     */
+    private static long shingleHash(long[] lineHashes, int end) {
+        int size = Math.min(end, lineHashes.length);
+        long hash = 0;
+        for (int i = end - size; i < end; i++) {
+            hash = MinHash.mix(hash * 31 + lineHashes[i % lineHashes.length]);
+        }
+        return hash;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the lines or shingles of both texts.
+     *
+     * @param other the sketch of the other text, created using the same parameters
+     * @return the estimated similarity, between 0 and 1
+     */
+    public double estimateSimilarity(SimilaritySketch other) {
+        if (numHashes != other.numHashes || bits != other.bits || shingleSize != other.shingleSize) {
+            throw new IllegalArgumentException("sketches created using different parameters are not comparable");
+        }
+        int perWord = 64 / bits;
+        long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            int shift = i % perWord * bits;
+            if ((values[i / perWord] >>> shift & mask) == (other.values[i / perWord] >>> shift & mask)) {
+                equal++;
+            }
+        }
+        double matching = (double) equal / numHashes;
+        if (bits == 64) {
+            return matching;
+        }
+        // values of dissimilar elements still match by chance with a probability of 2^-bits
+        double chance = 1.0 / (1L << bits);
+        return Math.max(0, (matching - chance) / (1 - chance));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        try {
+            checkParameters(shingleSize, numHashes, bits);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+        if (values == null || values.length != valueCount(numHashes, bits)) {
+            throw new InvalidObjectException("sketch of " + numHashes + " values of " + bits + " bits is truncated");
+        }
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public int getShingleSize() {
+        return shingleSize;
+    }
+
+    /**
+     * @return the compact binary form of this sketch
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + values.length * 8);
+        buffer.putInt(numHashes).putInt(bits).putInt(shingleSize);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads a sketch from its binary form.
+     *
+     * @param bytes the binary form created by {@link #toBytes()}
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are no valid sketch
+     */
+    public static SimilaritySketch fromBytes(byte[] bytes) {
+        if (bytes.length < 12) {
+            throw new IllegalArgumentException("sketch of " + bytes.length + " bytes is truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int numHashes = buffer.getInt();
+        int bits = buffer.getInt();
+        int shingleSize = buffer.getInt();
+        checkParameters(shingleSize, numHashes, bits);
+        if (buffer.remaining() != valueCount(numHashes, bits) * 8L) {
+            throw new IllegalArgumentException("sketch of " + numHashes + " values of " + bits + " bits can not have "
+                    + buffer.remaining() + " bytes of values");
+        }
+        long[] values = new long[buffer.remaining() / 8];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getLong();
+        }
+        return new SimilaritySketch(numHashes, bits, shingleSize, values);
+    }
+}
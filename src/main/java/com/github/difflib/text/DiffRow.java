@@ -28,18 +28,29 @@ import java.io.Serializable;
  */
 public final class DiffRow implements Serializable {
 
+    private static final long serialVersionUID = -2978929402491586527L;
+
     private Tag tag;
     private final String oldLine;
     private final String newLine;
+    private final int skippedLines;
 
     public DiffRow(Tag tag, String oldLine, String newLine) {
+        this(tag, oldLine, newLine, 0);
+    }
+
+    /**
+     * Creates a diff row, a {@link Tag#SKIPPED} row stands for the given number of folded unchanged lines.
+     */
+    public DiffRow(Tag tag, String oldLine, String newLine, int skippedLines) {
         this.tag = tag;
         this.oldLine = oldLine;
         this.newLine = newLine;
+        this.skippedLines = skippedLines;
     }
 
     public enum Tag {
-        INSERT, DELETE, CHANGE, EQUAL
+        INSERT, DELETE, CHANGE, EQUAL, SKIPPED
     }
 
     /**
@@ -70,6 +81,13 @@ public final class DiffRow implements Serializable {
         return newLine;
     }
 
+    /**
+     * @return the number of unchanged lines folded into a {@link Tag#SKIPPED} row, otherwise 0
+     */
+    public int getSkippedLines() {
+        return skippedLines;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -82,6 +100,7 @@ public final class DiffRow implements Serializable {
         result = prime * result + ((newLine == null) ? 0 : newLine.hashCode());
         result = prime * result + ((oldLine == null) ? 0 : oldLine.hashCode());
         result = prime * result + ((tag == null) ? 0 : tag.hashCode());
+        result = prime * result + skippedLines;
         return result;
     }
 
@@ -123,11 +142,17 @@ public final class DiffRow implements Serializable {
         } else if (!tag.equals(other.tag)) {
             return false;
         }
+        if (skippedLines != other.skippedLines) {
+            return false;
+        }
         return true;
     }
 
     @Override
     public String toString() {
+        if (tag == Tag.SKIPPED) {
+            return "[" + this.tag + "," + this.skippedLines + "]";
+        }
         return "[" + this.tag + "," + this.oldLine + "," + this.newLine + "]";
     }
 }
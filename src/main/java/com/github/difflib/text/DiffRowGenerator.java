@@ -79,6 +79,7 @@ public class DiffRowGenerator {
     private final BiPredicate<String, String> equalizer;
     private final boolean mergeOriginalRevised;
     private final boolean reportLinesUnchanged;
+    private final int contextSize;
 
     /**
      * This class used for building the DiffRowGenerator.
@@ -97,6 +98,7 @@ public class DiffRowGenerator {
         private int columnWidth = 0;
         private boolean mergeOriginalRevised = false;
         private boolean reportLinesUnchanged = false;
+        private int contextSize = -1;
         private Function<String, List<String>> inlineDiffSplitter = SPLITTER_BY_CHARACTER;
 
         private Builder() {
@@ -170,6 +172,19 @@ public class DiffRowGenerator {
             return this;
         }
 
+        /**
+         * Keep only the given number of unchanged lines before and after each change. The remaining unchanged lines
+         * are folded into one row tagged {@link Tag#SKIPPED} carrying the number of skipped lines, unless it is a
+         * single line. Folded lines are neither normalized nor wrapped.
+         *
+         * @param size the number of context lines. Default: -1, which keeps all unchanged lines.
+         * @return builder with configured contextSize parameter
+         */
+        public Builder contextSize(int size) {
+            contextSize = size;
+            return this;
+        }
+
         /**
          * Build the DiffRowGenerator. If some parameters is not set, the default values are used.
          *
@@ -220,6 +235,7 @@ public class DiffRowGenerator {
         inlineDiffSplitter = builder.inlineDiffSplitter;
         equalizer = ignoreWhiteSpaces ? IGNORE_WHITESPACE_EQUALIZER : DEFAULT_EQUALIZER;
         reportLinesUnchanged = builder.reportLinesUnchanged;
+        contextSize = builder.contextSize;
         
         Objects.requireNonNull(inlineDiffSplitter);
     }
@@ -244,7 +260,7 @@ public class DiffRowGenerator {
         }
     }
 
-    private DiffRow buildDiffRow(Tag type, String orgline, String newline) {
+    DiffRow buildDiffRow(Tag type, String orgline, String newline) {
         if (reportLinesUnchanged) {
             return new DiffRow(type, orgline, newline);
         } else {
@@ -275,6 +291,7 @@ public class DiffRowGenerator {
     /**
      * Generates the DiffRows describing the difference between original and revised texts using the given patch. Useful
      * for displaying side-by-side diff.
+     * A moved block is shown as deleted at its source and inserted at its destination.
      *
      * @param original the original text
      * @param revised the revised text
@@ -283,54 +300,249 @@ public class DiffRowGenerator {
      */
     public List<DiffRow> generateDiffRows(final List<String> original, Patch<String> patch) throws DiffException {
         List<DiffRow> diffRows = new ArrayList<>();
-        int endPos = 0;
-        final List<Delta<String>> deltaList = patch.getDeltas();
-        for (int i = 0; i < deltaList.size(); i++) {
-            Delta<String> delta = deltaList.get(i);
-            Chunk<String> orig = delta.getOriginal();
-            Chunk<String> rev = delta.getRevised();
-
-            for (String line : original.subList(endPos, orig.getPosition())) {
-                diffRows.add(buildDiffRow(Tag.EQUAL, line, line));
-            }
+        RowCursor cursor = new RowCursor(original, patch);
+        DiffRow row;
+        while ((row = cursor.next()) != null) {
+            diffRows.add(row);
+        }
+        return diffRows;
+    }
 
-            // Inserted DiffRow
-            if (delta instanceof InsertDelta) {
-                endPos = orig.last() + 1;
-                for (String line : (List<String>) rev.getLines()) {
-                    diffRows.add(buildDiffRow(Tag.INSERT, "", line));
+    /**
+     * Iterates lazily over the DiffRows describing the difference between original and revised texts using the given
+     * patch. The rows of unchanged lines are built one at a time while iterating, the rows of a delta when reaching
+     * it. So the first rows are available at once and no rows are kept once they are consumed.
+     *
+     * <p>
+     * Since an iterator can not throw a {@link DiffException}, a failing inline diff is reported as
+     * {@link IllegalStateException} having the DiffException as cause.
+     * </p>
+     *
+     * @param original the original text
+     * @param patch the given patch
+     * @return the iterator over the DiffRows between original and revised texts
+     */
+    public Iterator<DiffRow> iterateDiffRows(final List<String> original, Patch<String> patch) {
+        RowCursor cursor = new RowCursor(original, patch);
+        return new Iterator<DiffRow>() {
+            private DiffRow nextRow = advance();
+
+            private DiffRow advance() {
+                try {
+                    return cursor.next();
+                } catch (DiffException e) {
+                    throw new IllegalStateException("inline diff failed", e);
                 }
-                continue;
             }
 
-            // Deleted DiffRow
-            if (delta instanceof DeleteDelta) {
-                endPos = orig.last() + 1;
-                for (String line : (List<String>) orig.getLines()) {
-                    diffRows.add(buildDiffRow(Tag.DELETE, line, ""));
+            @Override
+            public boolean hasNext() {
+                return nextRow != null;
+            }
+
+            @Override
+            public DiffRow next() {
+                if (nextRow == null) {
+                    throw new NoSuchElementException();
                 }
-                continue;
+                DiffRow row = nextRow;
+                nextRow = advance();
+                return row;
             }
+        };
+    }
 
-            if (showInlineDiffs) {
-                diffRows.addAll(generateInlineDiffs(delta));
-            } else {
-                for (int j = 0; j < Math.max(orig.size(), rev.size()); j++) {
-                    diffRows.add(buildDiffRow(Tag.CHANGE,
-                            orig.getLines().size() > j ? orig.getLines().get(j) : "",
-                            rev.getLines().size() > j ? rev.getLines().get(j) : ""));
+    /**
+     * Creates a lazy, ordered spliterator over the DiffRows, see {@link #iterateDiffRows(List, Patch)}. Use
+     * {@code StreamSupport.stream(spliterator, false)} to process the rows as stream.
+     *
+     * @param original the original text
+     * @param patch the given patch
+     * @return the spliterator over the DiffRows between original and revised texts
+     */
+    public Spliterator<DiffRow> spliterateDiffRows(final List<String> original, Patch<String> patch) {
+        return Spliterators.spliteratorUnknownSize(iterateDiffRows(original, patch),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Walks the segments of the original text: the runs of unchanged lines and the deltas of the patch in between.
+     */
+    private final class RowCursor {
+
+        private final List<String> original;
+        private final List<Delta<String>> deltas;
+        private int deltaIndex;
+        private int position;
+        private Iterator<DiffRow> deltaRows = Collections.emptyIterator();
+
+        RowCursor(List<String> original, Patch<String> patch) {
+            this.original = original;
+            this.deltas = new ArrayList<>(patch.getDeltasWithoutMoves(true));
+        }
+
+        /**
+         * @return the next row, or {@code null} after the last one
+         */
+        DiffRow next() throws DiffException {
+            while (!deltaRows.hasNext()) {
+                int runStart = deltaIndex > 0 ? deltas.get(deltaIndex - 1).getOriginal().last() + 1 : 0;
+                int runEnd = deltaIndex < deltas.size() ? deltas.get(deltaIndex).getOriginal().getPosition()
+                        : original.size();
+                int foldStart = foldStart(runStart, runEnd, deltaIndex > 0);
+                int foldEnd = foldEnd(runStart, runEnd, deltaIndex < deltas.size());
+                if (position == foldStart && folds(foldStart, foldEnd)) {
+                    position = foldEnd;
+                    return buildSkippedRow(foldEnd - foldStart);
                 }
+                if (position < runEnd) {
+                    String line = original.get(position++);
+                    return buildDiffRow(Tag.EQUAL, line, line);
+                }
+                if (deltaIndex == deltas.size()) {
+                    return null;
+                }
+                Delta<String> delta = deltas.get(deltaIndex++);
+                deltaRows = generateDeltaRows(delta).iterator();
+                position = delta.getOriginal().last() + 1;
             }
-            endPos = orig.last() + 1;
+            return deltaRows.next();
         }
+    }
 
-        // Copy the final matching chunk if any.
-        for (String line : original.subList(endPos, original.size())) {
-            diffRows.add(buildDiffRow(Tag.EQUAL, line, line));
+    /**
+     * Generates the DiffRows of a single delta.
+     */
+    private List<DiffRow> generateDeltaRows(Delta<String> delta) throws DiffException {
+        return generateDeltaRows(delta, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Generates the DiffRows of a single delta having a row number within the given range. Only inline diffs need to
+     * render the whole delta.
+     *
+     * @param delta the delta
+     * @param fromRow the first row of the delta to generate, inclusive
+     * @param toRow the last row of the delta to generate, exclusive
+     */
+    List<DiffRow> generateDeltaRows(Delta<String> delta, int fromRow, int toRow) throws DiffException {
+        Chunk<String> orig = delta.getOriginal();
+        Chunk<String> rev = delta.getRevised();
+        List<DiffRow> diffRows = new ArrayList<>();
+
+        // Inserted DiffRow
+        if (delta instanceof InsertDelta) {
+            for (int j = fromRow; j < Math.min(toRow, rev.size()); j++) {
+                diffRows.add(buildDiffRow(Tag.INSERT, "", rev.getLines().get(j)));
+            }
+            return diffRows;
+        }
+
+        // Deleted DiffRow
+        if (delta instanceof DeleteDelta) {
+            for (int j = fromRow; j < Math.min(toRow, orig.size()); j++) {
+                diffRows.add(buildDiffRow(Tag.DELETE, orig.getLines().get(j), ""));
+            }
+            return diffRows;
+        }
+
+        if (showInlineDiffs) {
+            List<DiffRow> inlineRows = generateInlineDiffs(delta);
+            return inlineRows.subList(Math.min(fromRow, inlineRows.size()), Math.min(toRow, inlineRows.size()));
+        }
+        for (int j = fromRow; j < Math.min(toRow, Math.max(orig.size(), rev.size())); j++) {
+            diffRows.add(buildDiffRow(Tag.CHANGE,
+                    orig.getLines().size() > j ? orig.getLines().get(j) : "",
+                    rev.getLines().size() > j ? rev.getLines().get(j) : ""));
         }
         return diffRows;
     }
 
+    /**
+     * Checks whether generating any row of the delta renders the inline diff of the whole delta.
+     */
+    boolean rendersWholeDelta(Delta<String> delta) {
+        return showInlineDiffs && !(delta instanceof InsertDelta) && !(delta instanceof DeleteDelta);
+    }
+
+    /**
+     * Counts the DiffRows of a single delta. Only merged inline diffs need to be rendered for this, since the inserted
+     * text may add lines to the original side.
+     */
+    int countDeltaRows(Delta<String> delta) throws DiffException {
+        int originalSize = delta.getOriginal().size();
+        int revisedSize = delta.getRevised().size();
+        if (delta instanceof InsertDelta) {
+            return revisedSize;
+        }
+        if (delta instanceof DeleteDelta) {
+            return originalSize;
+        }
+        if (showInlineDiffs && mergeOriginalRevised) {
+            return generateInlineDiffs(delta).size();
+        }
+        return Math.max(originalSize, revisedSize);
+    }
+
+    /**
+     * Computes the start of the unchanged lines of a run folded into a skipped row.
+     *
+     * @param runStart the first unchanged line of the run
+     * @param runEnd the end of the run, exclusive
+     * @param afterChange whether the run follows a change, which keeps context lines at its start
+     */
+    int foldStart(int runStart, int runEnd, boolean afterChange) {
+        if (contextSize < 0) {
+            return runEnd;
+        }
+        return afterChange ? runStart + Math.min(contextSize, runEnd - runStart) : runStart;
+    }
+
+    /**
+     * Computes the end of the unchanged lines of a run folded into a skipped row, exclusive. Lines are folded only if
+     * {@link #folds(int, int)}.
+     *
+     * @param runStart the first unchanged line of the run
+     * @param runEnd the end of the run, exclusive
+     * @param beforeChange whether a change follows the run, which keeps context lines at its end
+     */
+    int foldEnd(int runStart, int runEnd, boolean beforeChange) {
+        if (contextSize < 0) {
+            return runEnd;
+        }
+        return beforeChange ? runEnd - Math.min(contextSize, runEnd - runStart) : runEnd;
+    }
+
+    /**
+     * Checks whether the unchanged lines between the given bounds are folded. A single line is kept, since its skipped
+     * row would take the same space.
+     */
+    static boolean folds(int foldStart, int foldEnd) {
+        return foldEnd - foldStart > 1;
+    }
+
+    DiffRow buildSkippedRow(int skippedLines) {
+        return new DiffRow(Tag.SKIPPED, "", "", skippedLines);
+    }
+
+    /**
+     * Creates an index of the DiffRows describing the difference between original and revised texts using the given
+     * patch. The index keeps one entry per delta and run of unchanged lines and renders any window of rows on demand,
+     * see {@link DiffRowIndex}.
+     * <p>
+     * With {@link Builder#showInlineDiffs(boolean)} a window renders the inline diffs of its changed deltas in full, a
+     * window within a large delta costs as much as the whole delta. Together with
+     * {@link Builder#mergeOriginalRevised(boolean)} the row count of a change depends on its inline diff, so creating
+     * the index renders every changed delta once, which is as expensive as {@link #generateDiffRows(List, Patch)}.
+     *
+     * @param original the original text
+     * @param patch the given patch
+     * @return the row index
+     */
+    public DiffRowIndex createRowIndex(final List<String> original, Patch<String> patch) throws DiffException {
+        return new DiffRowIndex(this, original, patch);
+    }
+
     /**
      * Add the inline diffs for given delta
      *
@@ -393,8 +605,8 @@ public class DiffRowGenerator {
             revResult.append(character);
         }
 
-        List<String> original = Arrays.asList(origResult.toString().split("\n"));
-        List<String> revised = Arrays.asList(revResult.toString().split("\n"));
+        List<String> original = Arrays.asList(origResult.toString().split("\n", -1));
+        List<String> revised = Arrays.asList(revResult.toString().split("\n", -1));
         List<DiffRow> diffRows = new ArrayList<>();
         for (int j = 0; j < Math.max(original.size(), revised.size()); j++) {
             diffRows.
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 java-diff-utils.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.difflib.text;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.text.DiffRow.Tag;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random access to the DiffRows of a patch without generating all of them. The index is a prefix sum of the row counts
+ * of the segments of the original text, these are the runs of unchanged lines and the deltas in between. A window of
+ * rows is located by binary search and only its rows are rendered, including the inline diffs of just its deltas.
+ * Unchanged lines folded by {@link DiffRowGenerator.Builder#contextSize(int)} take a single row.
+ * <p>
+ * Inline diffs are rendered for a whole delta at once, so the rows of the most recently used deltas are kept and
+ * windows paging through a large delta render it only once. The index may be shared by threads rendering windows
+ * concurrently.
+ *
+ * <code>
+ *    DiffRowIndex index = generator.createRowIndex(original, patch);
+ *    List&lt;DiffRow&gt; page = index.getRows(50000, 50200);
+ * </code>
+ */
+public final class DiffRowIndex {
+
+    private static final int RENDERED_DELTAS = 16;
+
+    private final DiffRowGenerator generator;
+    private final List<String> original;
+    private final List<Delta<String>> segmentDelta;
+    private int[] segmentStartRow;
+    private int[] segmentStartPosition;
+    private int[] segmentSkipped;
+    private int segments;
+    private int rowCount;
+    private final Map<Integer, List<DiffRow>> renderedDeltas
+            = new LinkedHashMap<Integer, List<DiffRow>>(RENDERED_DELTAS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<DiffRow>> eldest) {
+            return size() > RENDERED_DELTAS;
+        }
+    };
+
+    DiffRowIndex(DiffRowGenerator generator, List<String> original, Patch<String> patch) throws DiffException {
+        this.generator = generator;
+        this.original = original;
+
+        List<Delta<String>> deltas = patch.getDeltasWithoutMoves(true);
+        int capacity = 4 * deltas.size() + 3;
+        segmentStartRow = new int[capacity];
+        segmentStartPosition = new int[capacity];
+        segmentSkipped = new int[capacity];
+        segmentDelta = new ArrayList<>(capacity);
+
+        int position = 0;
+        boolean afterChange = false;
+        for (Delta<String> delta : deltas) {
+            int deltaPosition = delta.getOriginal().getPosition();
+            addRun(position, deltaPosition, afterChange, true);
+            int deltaRows = generator.countDeltaRows(delta);
+            if (deltaRows > 0) {
+                addSegment(deltaPosition, delta, 0, deltaRows);
+            }
+            position = delta.getOriginal().last() + 1;
+            afterChange = true;
+        }
+        addRun(position, original.size(), afterChange, false);
+
+        segmentStartRow = Arrays.copyOf(segmentStartRow, segments);
+        segmentStartPosition = Arrays.copyOf(segmentStartPosition, segments);
+        segmentSkipped = Arrays.copyOf(segmentSkipped, segments);
+    }
+
+    /**
+     * Adds the segments of a run of unchanged lines, folding them like {@link DiffRowGenerator} does.
+     */
+    private void addRun(int runStart, int runEnd, boolean afterChange, boolean beforeChange) {
+        int foldStart = generator.foldStart(runStart, runEnd, afterChange);
+        int foldEnd = generator.foldEnd(runStart, runEnd, beforeChange);
+        if (DiffRowGenerator.folds(foldStart, foldEnd)) {
+            addEqualRun(runStart, foldStart);
+            addSegment(foldStart, null, foldEnd - foldStart, 1);
+            addEqualRun(foldEnd, runEnd);
+        } else {
+            addEqualRun(runStart, runEnd);
+        }
+    }
+
+    private void addEqualRun(int runStart, int runEnd) {
+        if (runStart < runEnd) {
+            addSegment(runStart, null, 0, runEnd - runStart);
+        }
+    }
+
+    private void addSegment(int position, Delta<String> delta, int skipped, int rows) {
+        segmentStartRow[segments] = rowCount;
+        segmentStartPosition[segments] = position;
+        segmentSkipped[segments] = skipped;
+        segmentDelta.add(delta);
+        segments++;
+        rowCount += rows;
+    }
+
+    /**
+     * @return the number of DiffRows
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Renders the DiffRows in the given range, these are the same as the rows {@code fromRow} to {@code toRow} of
+     * {@link DiffRowGenerator#generateDiffRows(List, Patch)}.
+     *
+     * @param fromRow the first row, inclusive
+     * @param toRow the last row, exclusive
+     * @return the rows of the window
+     * @throws IndexOutOfBoundsException if the range is not within {@code 0} and {@link #size()}
+     */
+    public List<DiffRow> getRows(int fromRow, int toRow) throws DiffException {
+        if (fromRow < 0 || toRow > rowCount || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("rows " + fromRow + " to " + toRow + " of " + rowCount);
+        }
+        List<DiffRow> rows = new ArrayList<>(toRow - fromRow);
+        if (fromRow == toRow) {
+            return rows;
+        }
+
+        int segment = Arrays.binarySearch(segmentStartRow, fromRow);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        for (int row = fromRow; row < toRow; segment++) {
+            int offset = row - segmentStartRow[segment];
+            int segmentEnd = segment + 1 < segments ? segmentStartRow[segment + 1] : rowCount;
+            int end = Math.min(toRow, segmentEnd) - segmentStartRow[segment];
+            Delta<String> delta = segmentDelta.get(segment);
+            if (segmentSkipped[segment] > 0) {
+                rows.add(generator.buildSkippedRow(segmentSkipped[segment]));
+            } else if (delta == null) {
+                for (int j = offset; j < end; j++) {
+                    String line = original.get(segmentStartPosition[segment] + j);
+                    rows.add(generator.buildDiffRow(Tag.EQUAL, line, line));
+                }
+            } else if (generator.rendersWholeDelta(delta)) {
+                List<DiffRow> deltaRows = renderDelta(segment, delta);
+                rows.addAll(deltaRows.subList(Math.min(offset, deltaRows.size()), Math.min(end, deltaRows.size())));
+            } else {
+                rows.addAll(generator.generateDeltaRows(delta, offset, end));
+            }
+            row = segmentStartRow[segment] + end;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns all rows of a delta whose inline diff is rendered at once, reusing them for later windows. The access
+     * ordered cache changes on every lookup and is guarded by itself, rendering is done outside the lock.
+     */
+    private List<DiffRow> renderDelta(int segment, Delta<String> delta) throws DiffException {
+        List<DiffRow> rows;
+        synchronized (renderedDeltas) {
+            rows = renderedDeltas.get(segment);
+        }
+        if (rows == null) {
+            rows = generator.generateDeltaRows(delta, 0, Integer.MAX_VALUE);
+            synchronized (renderedDeltas) {
+                renderedDeltas.put(segment, rows);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Patch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.Test;
+
+public class AnnotateUtilsTest {
+
+    private static final List<List<String>> REVISIONS = Arrays.asList(
+            Arrays.asList("aaa", "bbb", "ccc"),
+            Arrays.asList("aaa", "xxx", "bbb", "ccc"),
+            Arrays.asList("new", "aaa", "xxx", "ccc"),
+            Arrays.asList("new", "aaa", "yyy", "ccc", "end"));
+
+    @Test
+    public void testAnnotateRevisions() throws DiffException, InterruptedException {
+        assertArrayEquals(new int[]{2, 0, 3, 0, 3}, AnnotateUtils.annotate(REVISIONS));
+    }
+
+    @Test
+    public void testAnnotatePatches() throws DiffException {
+        final List<Patch<String>> patches = new ArrayList<>();
+        for (int i = 1; i < REVISIONS.size(); i++) {
+            patches.add(DiffUtils.diff(REVISIONS.get(i - 1), REVISIONS.get(i)));
+        }
+        assertArrayEquals(new int[]{2, 0, 3, 0, 3}, AnnotateUtils.annotate(REVISIONS.get(0).size(), patches));
+    }
+
+    @Test
+    public void testAnnotateSingleRevision() throws DiffException, InterruptedException {
+        assertArrayEquals(new int[]{0, 0, 0}, AnnotateUtils.annotate(REVISIONS.subList(0, 1)));
+    }
+
+    @Test
+    public void testAnnotatePatchesWithMoves() throws DiffException {
+        List<String> base = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        List<String> moved = Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e");
+        List<String> last = Arrays.asList("a", "f", "g", "h", "b", "x", "d", "e");
+        List<Patch<String>> patches = Arrays.asList(
+                DiffUtils.diffWithMoves(base, moved, 3),
+                DiffUtils.diff(moved, last));
+
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 2, 0, 0}, AnnotateUtils.annotate(base.size(), patches));
+    }
+
+    @Test
+    public void testAnnotateManyPatches() throws DiffException, InterruptedException {
+        Random random = new Random(4711);
+        List<List<String>> revisions = new ArrayList<>();
+        List<String> text = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            text.add("line " + random.nextInt(20));
+        }
+        revisions.add(text);
+        List<Patch<String>> patches = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            List<String> next = new ArrayList<>(text);
+            for (int edits = random.nextInt(3); edits >= 0; edits--) {
+                int position = random.nextInt(next.size() + 1);
+                if (position < next.size() && random.nextBoolean()) {
+                    next.remove(position);
+                } else {
+                    next.add(position, "line " + random.nextInt(20));
+                }
+            }
+            patches.add(DiffUtils.diff(text, next));
+            revisions.add(next);
+            text = next;
+        }
+        assertArrayEquals(AnnotateUtils.annotate(revisions), AnnotateUtils.annotate(revisions.get(0).size(), patches));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Delta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class BinaryPatchUtilsTest {
+
+    private static final List<String> ORIGINAL = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff", "ggg");
+    private static final List<String> REVISED = Arrays.asList("new", "aaa", "bxb", "ccc", "ddd", "ggg", "äöü €");
+
+    @Test
+    public void testRoundTrip() throws DiffException, PatchFailedException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        ByteBuffer buffer = BinaryPatchUtils.encode(patch, false);
+
+        Patch<String> decoded = BinaryPatchUtils.decode(buffer);
+        assertEquals(patch.getDeltas(), decoded.getDeltas());
+        assertEquals(REVISED, decoded.applyTo(ORIGINAL));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testRoundTripDirectBuffer() throws DiffException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        ByteBuffer encoded = BinaryPatchUtils.encode(patch, true);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.remaining() + 2);
+        buffer.put((byte) 42);
+        BinaryPatchUtils.encode(patch, true, buffer);
+        buffer.put((byte) 43);
+        buffer.flip();
+
+        buffer.get();
+        assertEquals(patch.getDeltas(), BinaryPatchUtils.decode(buffer).getDeltas());
+        assertEquals(43, buffer.get());
+    }
+
+    @Test
+    public void testDecodeDeltaAt() throws DiffException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        List<Delta<String>> deltas = patch.getDeltas();
+        ByteBuffer buffer = BinaryPatchUtils.encode(patch, true);
+
+        assertEquals(deltas.get(0), BinaryPatchUtils.decodeDeltaAt(buffer, 0));
+        assertEquals(deltas.get(1), BinaryPatchUtils.decodeDeltaAt(buffer, 1));
+        assertNull(BinaryPatchUtils.decodeDeltaAt(buffer, 2));
+        assertEquals(deltas.get(2), BinaryPatchUtils.decodeDeltaAt(buffer, 4));
+        assertEquals(deltas.get(2), BinaryPatchUtils.decodeDeltaAt(buffer, 5));
+        assertEquals(deltas.get(3), BinaryPatchUtils.decodeDeltaAt(buffer, 7));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeDeltaAtWithoutIndex() throws DiffException {
+        BinaryPatchUtils.decodeDeltaAt(BinaryPatchUtils.encode(DiffUtils.diff(ORIGINAL, REVISED), false), 0);
+    }
+}
@@ -1,15 +1,21 @@
 package com.github.difflib;
 
 import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.myers.MyersDiff;
 import com.github.difflib.patch.Patch;
 import com.github.difflib.patch.PatchFailedException;
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
@@ -104,6 +110,110 @@ public class GenerateUnifiedDiffTest {
         UnifiedDiffUtils.parseUnifiedDiff(udiff);
     }
 
+    @Test
+    public void testParseStreaming() throws DiffException, IOException {
+        List<String> origLines = fileToLines(TestConstants.MOCK_FOLDER + "original.txt");
+        List<String> revLines = fileToLines(TestConstants.MOCK_FOLDER + "revised.txt");
+        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff("original.txt", "revised.txt",
+                origLines, DiffUtils.diff(origLines, revLines), 3);
+        String text = String.join("\r\n", unifiedDiff);
+        Patch<String> expected = UnifiedDiffUtils.parseUnifiedDiff(unifiedDiff);
+
+        Patch<String> fromReader = new Patch<>();
+        UnifiedDiffUtils.parseUnifiedDiff(new StringReader(text), fromReader::addDelta);
+        assertEquals(expected.getDeltas(), fromReader.getDeltas());
+
+        Patch<String> fromBuffer = new Patch<>();
+        UnifiedDiffUtils.parseUnifiedDiff(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), fromBuffer::addDelta);
+        assertEquals(expected.getDeltas(), fromBuffer.getDeltas());
+    }
+
+    @Test
+    public void testWriteUnified() throws DiffException, IOException {
+        List<String> origLines = fileToLines(TestConstants.MOCK_FOLDER + "original.txt");
+        List<String> revLines = fileToLines(TestConstants.MOCK_FOLDER + "revised.txt");
+        Patch<String> patch = DiffUtils.diff(origLines, revLines);
+        StringBuilder expected = new StringBuilder();
+        for (String line : UnifiedDiffUtils.generateUnifiedDiff("original.txt", "revised.txt", origLines, patch, 3)) {
+            expected.append(line).append('\n');
+        }
+
+        StringWriter fromPatch = new StringWriter();
+        UnifiedDiffUtils.writeUnifiedDiff("original.txt", "revised.txt", origLines, patch, 3, fromPatch);
+        assertEquals(expected.toString(), fromPatch.toString());
+
+        StringBuilder fromChanges = new StringBuilder();
+        UnifiedDiffUtils.writeUnifiedDiff("original.txt", "revised.txt", origLines, revLines,
+                new MyersDiff<String>().diff(origLines, revLines, null), 3, fromChanges);
+        assertEquals(expected.toString(), fromChanges.toString());
+    }
+
+    @Test
+    public void testParseMinimalDeltas() throws DiffException, IOException {
+        List<String> origLines = fileToLines(TestConstants.MOCK_FOLDER + "original.txt");
+        List<String> revLines = fileToLines(TestConstants.MOCK_FOLDER + "revised.txt");
+        Patch<String> patch = DiffUtils.diff(origLines, revLines);
+        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff("original.txt", "revised.txt",
+                origLines, patch, 3);
+
+        assertEquals(patch.getDeltas(), UnifiedDiffUtils.parseUnifiedDiff(unifiedDiff).getDeltas());
+    }
+
+    @Test
+    public void testParseHunkHeaders() {
+        List<String> diff = Arrays.asList("--- a", "+++ b", "@@  -3 \t+3,2  @@", "-x", "+y", "+z",
+                "@@ -9,1 +10,1 @@ text", "-v", "@@ -0,0 +12 @@", "+w");
+        Patch<String> patch = UnifiedDiffUtils.parseUnifiedDiff(diff);
+        assertEquals(3, patch.getDeltas().size());
+        assertEquals(0, patch.getDeltas().get(0).getOriginal().getPosition());
+        assertEquals(11, patch.getDeltas().get(0).getRevised().getPosition());
+        assertEquals(2, patch.getDeltas().get(1).getOriginal().getPosition());
+        assertEquals(Arrays.asList("x"), patch.getDeltas().get(1).getOriginal().getLines());
+        assertEquals(8, patch.getDeltas().get(2).getOriginal().getPosition());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseMalformedHunkHeader() {
+        UnifiedDiffUtils.parseUnifiedDiff(Arrays.asList("--- a", "+++ b", "@@ -3 +3,2 @@", "-x", "+y", "+z",
+                "@@ -7, +7 @@", "-u"));
+    }
+
+    @Test
+    public void testParseMultipleFiles() throws PatchFailedException {
+        List<String> diff = Arrays.asList(
+                "commit message",
+                "diff --git a/one.txt b/one.txt",
+                "index 83db48f..bf269f4 100644",
+                "--- a/one.txt",
+                "+++ b/one.txt",
+                "@@ -1,3 +1,3 @@ section",
+                " a",
+                "--- x",
+                "+++ y",
+                " c",
+                "diff --git a/image.png b/image.png",
+                "Binary files a/image.png and b/image.png differ",
+                "--- two.txt\t2017-01-01 10:00:00",
+                "+++ two.txt\t2017-01-02 10:00:00",
+                "@@ -1 +1,2 @@",
+                " d",
+                "+e");
+        List<UnifiedDiffFile> files = UnifiedDiffUtils.parseUnifiedDiffFiles(diff);
+        assertEquals(3, files.size());
+
+        assertEquals("a/one.txt", files.get(0).getFromFile());
+        assertEquals("b/one.txt", files.get(0).getToFile());
+        assertEquals(Arrays.asList("a", "++ y", "c"),
+                files.get(0).getPatch().applyTo(Arrays.asList("a", "-- x", "c")));
+
+        assertEquals("a/image.png", files.get(1).getFromFile());
+        assertEquals("b/image.png", files.get(1).getToFile());
+        assertTrue(files.get(1).getPatch().getDeltas().isEmpty());
+
+        assertEquals("two.txt", files.get(2).getFromFile());
+        assertEquals(Arrays.asList("d", "e"), files.get(2).getPatch().applyTo(Arrays.asList("d")));
+    }
+
     private void verify(List<String> origLines, List<String> revLines,
             String originalFile, String revisedFile) throws DiffException {
         Patch<String> patch = DiffUtils.diff(origLines, revLines);
@@ -126,4 +236,22 @@ public class GenerateUnifiedDiffTest {
             fail(e.getMessage());
         }
     }
+
+    @Test
+    public void testGenerateUnifiedDiffWithMoves() throws DiffException, PatchFailedException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        List<String> revised = Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e");
+        Patch<String> patch = DiffUtils.diffWithMoves(original, revised, 3);
+
+        List<String> unifiedDiff = UnifiedDiffUtils.generateUnifiedDiff("a.txt", "b.txt", original, patch, 1);
+        assertEquals(revised, UnifiedDiffUtils.parseUnifiedDiff(unifiedDiff).applyTo(original));
+
+        StringWriter writer = new StringWriter();
+        try {
+            UnifiedDiffUtils.writeUnifiedDiff("a.txt", "b.txt", original, patch, 1, writer);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+        assertEquals(String.join("\n", unifiedDiff) + "\n", writer.toString());
+    }
 }
@@ -0,0 +1,140 @@
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StreamingPatchUtilsTest {
+
+    private static final List<String> ORIGINAL = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee");
+    private static final List<String> REVISED = Arrays.asList("new", "aaa", "bxb", "ccc", "eee", "fff");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testApplyTo() throws DiffException, PatchFailedException, IOException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        StringWriter target = new StringWriter();
+        StreamingPatchUtils.applyTo(patch, new StringReader(String.join("\n", ORIGINAL) + "\n"), target);
+        assertEquals(String.join("\n", REVISED) + "\n", target.toString());
+    }
+
+    @Test
+    public void testRestore() throws DiffException, PatchFailedException, IOException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        StringWriter target = new StringWriter();
+        StreamingPatchUtils.restore(patch, new StringReader(String.join("\r\n", REVISED) + "\r\n"), target);
+        assertEquals(String.join("\r\n", ORIGINAL) + "\r\n", target.toString());
+    }
+
+    @Test
+    public void testApplyToChannels() throws DiffException, PatchFailedException, IOException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        StreamingPatchUtils.applyTo(patch,
+                Channels.newChannel(new ByteArrayInputStream(String.join("\n", ORIGINAL).getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(target), StandardCharsets.UTF_8);
+        assertEquals(String.join("\n", REVISED), new String(target.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testApplyToMismatch() throws DiffException, IOException {
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        try {
+            StreamingPatchUtils.applyTo(patch, new StringReader("aaa\nxxx\nccc"), new StringWriter());
+            fail("patch should not apply");
+        } catch (PatchFailedException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testApplyInPlace() throws DiffException, PatchFailedException, IOException {
+        Path file = folder.newFile("target.txt").toPath();
+        Files.write(file, ORIGINAL, StandardCharsets.UTF_8);
+
+        StreamingPatchUtils.applyInPlace(DiffUtils.diff(ORIGINAL, REVISED), file, StandardCharsets.UTF_8);
+        assertEquals(REVISED, Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testApplyInPlaceKeepsLineTerminators() throws DiffException, PatchFailedException, IOException {
+        Path file = folder.newFile("target.txt").toPath();
+        String original = String.join("\r\n", ORIGINAL);
+        Files.write(file, original.getBytes(StandardCharsets.UTF_8));
+
+        Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        StreamingPatchUtils.applyInPlace(patch, file, StandardCharsets.UTF_8);
+        assertEquals(String.join("\r\n", REVISED), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+        StringWriter restored = new StringWriter();
+        StreamingPatchUtils.restore(patch, Files.newBufferedReader(file, StandardCharsets.UTF_8), restored);
+        assertEquals(original, restored.toString());
+    }
+
+    @Test
+    public void testApplyInPlaceKeepsPermissions() throws DiffException, PatchFailedException, IOException {
+        Path file = folder.newFile("target.sh").toPath();
+        Files.write(file, ORIGINAL, StandardCharsets.UTF_8);
+        Assume.assumeNotNull(Files.getFileAttributeView(file, PosixFileAttributeView.class));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rwxr-x---");
+        Files.setPosixFilePermissions(file, permissions);
+
+        StreamingPatchUtils.applyInPlace(DiffUtils.diff(ORIGINAL, REVISED), file, StandardCharsets.UTF_8);
+        assertEquals(REVISED, Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    public void testApplyInPlaceKeepsFileOnFailure() throws DiffException, IOException {
+        Path file = folder.newFile("target.txt").toPath();
+        List<String> other = Arrays.asList("xxx", "yyy");
+        Files.write(file, other, StandardCharsets.UTF_8);
+
+        try {
+            StreamingPatchUtils.applyInPlace(DiffUtils.diff(ORIGINAL, REVISED), file, StandardCharsets.UTF_8);
+            fail("patch should not apply");
+        } catch (PatchFailedException e) {
+            // expected
+        }
+        assertEquals(other, Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testApplyAndRestoreWithMoves() throws DiffException, PatchFailedException, IOException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        List<String> revised = Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e");
+        Patch<String> patch = DiffUtils.diffWithMoves(original, revised, 3);
+
+        StringWriter patched = new StringWriter();
+        StreamingPatchUtils.applyTo(patch, new StringReader(String.join("\n", original)), patched);
+        assertEquals(String.join("\n", revised), patched.toString());
+
+        StringWriter restored = new StringWriter();
+        StreamingPatchUtils.restore(patch, new StringReader(patched.toString()), restored);
+        assertEquals(String.join("\n", original), restored.toString());
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.difflib;
+
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.PatchFailedException;
+import com.github.difflib.similarity.RenameDetector;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TreeDiffTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDiffTrees() throws IOException, DiffException, InterruptedException, PatchFailedException {
+        Path original = folder.newFolder("original").toPath();
+        Path revised = folder.newFolder("revised").toPath();
+        write(original.resolve("same.txt"), "a\nb\n");
+        write(revised.resolve("same.txt"), "a\nb\n");
+        write(original.resolve("dir/changed.txt"), "a\nb\nc\n");
+        write(revised.resolve("dir/changed.txt"), "a\nx\nc\n");
+        write(original.resolve("deleted.txt"), "d\n");
+        write(revised.resolve("added.txt"), "e\nf\n");
+        Files.write(revised.resolve("image.bin"), new byte[]{1, 0, 2});
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(4, TreeDiff.diff(original, revised, 3, out));
+
+        List<UnifiedDiffFile> files = UnifiedDiffUtils.parseUnifiedDiffFiles(Arrays.asList(out.toString().split("\n")));
+        assertEquals(4, files.size());
+        assertEquals("/dev/null", files.get(0).getFromFile());
+        assertEquals("b/added.txt", files.get(0).getToFile());
+        assertEquals(Arrays.asList("e", "f"), files.get(0).getPatch().applyTo(Collections.emptyList()));
+        assertEquals("a/deleted.txt", files.get(1).getFromFile());
+        assertEquals(Collections.emptyList(), files.get(1).getPatch().applyTo(Arrays.asList("d")));
+        assertEquals("b/dir/changed.txt", files.get(2).getToFile());
+        assertEquals(Arrays.asList("a", "x", "c"), files.get(2).getPatch().applyTo(Arrays.asList("a", "b", "c")));
+        assertEquals("b/image.bin", files.get(3).getToFile());
+        assertTrue(out.toString().contains("Binary files /dev/null and b/image.bin differ\n"));
+    }
+
+    @Test
+    public void testDiffTreesWithRenames() throws IOException, DiffException, InterruptedException {
+        Path original = folder.newFolder("original").toPath();
+        Path revised = folder.newFolder("revised").toPath();
+        write(original.resolve("old.txt"), "a\nb\nc\nd\ne\n");
+        write(revised.resolve("new.txt"), "a\nb\nc\nd\nx\n");
+
+        StringBuilder out = new StringBuilder();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(1, TreeDiff.diff(original, revised, 1, new RenameDetector(), executor, out));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("diff --git a/old.txt b/new.txt\n"
+                + "similarity index 80%\n"
+                + "rename from old.txt\n"
+                + "rename to new.txt\n"
+                + "--- a/old.txt\n"
+                + "+++ b/new.txt\n"
+                + "@@ -4,2 +4,2 @@\n"
+                + " d\n"
+                + "-e\n"
+                + "+x\n", out.toString());
+    }
+
+    @Test
+    public void testDiffTreesWithoutFinalNewline() throws IOException, DiffException, InterruptedException {
+        Path original = folder.newFolder("original").toPath();
+        Path revised = folder.newFolder("revised").toPath();
+        write(original.resolve("changed.txt"), "k\nl");
+        write(revised.resolve("changed.txt"), "k\nm");
+        write(original.resolve("terminated.txt"), "k\nl");
+        write(revised.resolve("terminated.txt"), "k\nl\n");
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(2, TreeDiff.diff(original, revised, 3, out));
+        assertEquals("diff --git a/changed.txt b/changed.txt\n"
+                + "--- a/changed.txt\n"
+                + "+++ b/changed.txt\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + " k\n"
+                + "-l\n"
+                + "\\ No newline at end of file\n"
+                + "+m\n"
+                + "\\ No newline at end of file\n"
+                + "diff --git a/terminated.txt b/terminated.txt\n"
+                + "--- a/terminated.txt\n"
+                + "+++ b/terminated.txt\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + " k\n"
+                + "-l\n"
+                + "\\ No newline at end of file\n"
+                + "+l\n", out.toString());
+    }
+
+    @Test
+    public void testDiffTreesWithExecutableFile() throws IOException, DiffException, InterruptedException {
+        Path original = folder.newFolder("original").toPath();
+        Path revised = folder.newFolder("revised").toPath();
+        Path script = revised.resolve("run.sh");
+        write(script, "echo\n");
+        Assume.assumeNotNull(Files.getFileAttributeView(script, PosixFileAttributeView.class));
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(1, TreeDiff.diff(original, revised, 3, out));
+        assertTrue(out.toString().startsWith("diff --git a/run.sh b/run.sh\nnew file mode 100755\n"));
+    }
+
+    @Test
+    public void testDiffTreesWithModeChange() throws IOException, DiffException, InterruptedException {
+        Path original = folder.newFolder("original").toPath();
+        Path revised = folder.newFolder("revised").toPath();
+        write(original.resolve("run.sh"), "echo\n");
+        Path script = revised.resolve("run.sh");
+        write(script, "echo\n");
+        Assume.assumeNotNull(Files.getFileAttributeView(script, PosixFileAttributeView.class));
+        Files.setPosixFilePermissions(original.resolve("run.sh"), PosixFilePermissions.fromString("rw-r--r--"));
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(1, TreeDiff.diff(original, revised, 3, out));
+        assertEquals("diff --git a/run.sh b/run.sh\nold mode 100644\nnew mode 100755\n", out.toString());
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
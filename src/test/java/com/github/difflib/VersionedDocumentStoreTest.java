@@ -0,0 +1,91 @@
+package com.github.difflib;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VersionedDocumentStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendAndGet() throws IOException {
+        final List<List<String>> revisions = revisions(20);
+        final Path file = folder.getRoot().toPath().resolve("doc.store");
+        try (VersionedDocumentStore store = VersionedDocumentStore.open(file, 8)) {
+            for (int i = 0; i < revisions.size(); i++) {
+                assertEquals(i, store.append(revisions.get(i)));
+            }
+            for (int i = revisions.size() - 1; i >= 0; i--) {
+                assertEquals(revisions.get(i), store.get(i));
+            }
+        }
+        try (VersionedDocumentStore store = VersionedDocumentStore.open(file, 8)) {
+            assertEquals(revisions.size(), store.size());
+            for (int i = 0; i < revisions.size(); i++) {
+                assertEquals(revisions.get(i), store.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testInterleavedAppendAndGet() throws IOException {
+        final List<List<String>> revisions = revisions(100);
+        final Path file = folder.getRoot().toPath().resolve("doc.store");
+        try (VersionedDocumentStore store = VersionedDocumentStore.open(file, 16)) {
+            for (int i = 0; i < revisions.size(); i++) {
+                store.append(revisions.get(i));
+                assertEquals(revisions.get(i / 2), store.get(i / 2));
+                assertEquals(revisions.get(i), store.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIsDiscarded() throws IOException {
+        final List<List<String>> revisions = revisions(3);
+        final Path file = folder.getRoot().toPath().resolve("doc.store");
+        try (VersionedDocumentStore store = VersionedDocumentStore.open(file, 8)) {
+            for (List<String> revision : revisions) {
+                store.append(revision);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (VersionedDocumentStore store = VersionedDocumentStore.open(file, 8)) {
+            assertEquals(2, store.size());
+            assertEquals(revisions.get(1), store.get(1));
+            assertEquals(2, store.append(revisions.get(2)));
+            assertEquals(revisions.get(2), store.get(2));
+        }
+    }
+
+    private static List<List<String>> revisions(int count) {
+        final Random random = new Random(42);
+        final List<List<String>> revisions = new ArrayList<>();
+        List<String> text = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            text = new ArrayList<>(text);
+            for (int edit = 0; edit < 3; edit++) {
+                int position = random.nextInt(text.size() + 1);
+                if (position < text.size() && random.nextBoolean()) {
+                    text.set(position, "changed " + i + " " + edit);
+                } else {
+                    text.add(position, "line " + i + " " + edit);
+                }
+            }
+            revisions.add(text);
+        }
+        return revisions;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.difflib.algorithm.rle;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.algorithm.jgit.HistogramDiff;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class RunLengthDiffTest {
+
+    @Test
+    public void testChangedRunCount() throws DiffException {
+        final List<String> original = Arrays.asList("a", "", "", "", "", "b");
+        final List<String> revised = Arrays.asList("a", "", "", "", "", "", "", "b");
+
+        final Patch<String> patch = DiffUtils.diff(original, revised, new RunLengthDiff<>());
+        assertEquals("Patch{deltas=[[InsertDelta, position: 5, lines: [, ]]]}", patch.toString());
+    }
+
+    @Test
+    public void testSplitRun() throws DiffException {
+        final List<String> original = Arrays.asList("-", "-", "-", "-", "-");
+        final List<String> revised = Arrays.asList("-", "-", "x", "-", "-", "-");
+
+        final Patch<String> patch = DiffUtils.diff(original, revised, new RunLengthDiff<>());
+        assertEquals("Patch{deltas=[[InsertDelta, position: 2, lines: [x]]]}", patch.toString());
+    }
+
+    @Test
+    public void testRandomRuns() throws DiffException, PatchFailedException {
+        final Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            final List<String> original = randomRuns(random);
+            final List<String> revised = randomRuns(random);
+
+            final Patch<String> patch = DiffUtils.diff(original, revised, new RunLengthDiff<>());
+            assertEquals(revised, patch.applyTo(original));
+            assertEquals(original, patch.restore(revised));
+
+            final Patch<String> histogram = DiffUtils.diff(original, revised, new RunLengthDiff<>(new HistogramDiff<>()));
+            assertEquals(revised, histogram.applyTo(original));
+        }
+    }
+
+    private static List<String> randomRuns(Random random) {
+        final List<String> lines = new ArrayList<>();
+        for (int run = random.nextInt(10); run >= 0; run--) {
+            final String line = "line" + random.nextInt(4);
+            for (int count = 1 + random.nextInt(6); count > 0; count--) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.difflib.merge;
+
+import com.github.difflib.algorithm.DiffException;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ThreeWayMergeTest {
+
+    private static final List<String> BASE = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff");
+
+    @Test
+    public void testMergeWithoutConflicts() throws DiffException {
+        final List<String> ours = Arrays.asList("new", "aaa", "bbb", "ccc", "ddd", "eee", "fff");
+        final List<String> theirs = Arrays.asList("aaa", "bbb", "ccc", "dxd", "eee");
+
+        final List<MergeChunk<String>> chunks = ThreeWayMerge.merge(BASE, ours, theirs);
+        assertEquals(Arrays.asList("new", "aaa", "bbb", "ccc", "dxd", "eee"),
+                ThreeWayMerge.toLines(chunks, "<<<<<<<", "=======", ">>>>>>>"));
+        assertTrue(ThreeWayMerge.findConflicts(BASE, ours, theirs).isEmpty());
+    }
+
+    @Test
+    public void testMergeIdenticalChanges() throws DiffException {
+        final List<String> ours = Arrays.asList("aaa", "bxb", "ccc", "ddd", "eee", "fff");
+        final List<String> theirs = Arrays.asList("aaa", "bxb", "ccc", "ddd", "eee", "fff", "ggg");
+
+        final List<MergeChunk<String>> chunks = ThreeWayMerge.merge(BASE, ours, theirs);
+        assertEquals(theirs, ThreeWayMerge.toLines(chunks, "<<<<<<<", "=======", ">>>>>>>"));
+        assertEquals(MergeChunk.Type.BOTH, chunks.get(1).getType());
+    }
+
+    @Test
+    public void testMergeConflict() throws DiffException {
+        final List<String> ours = Arrays.asList("aaa", "bbb", "ours", "ddd", "eee", "fff");
+        final List<String> theirs = Arrays.asList("aaa", "bbb", "theirs", "ddd", "eee", "xxx");
+
+        final List<MergeChunk<String>> conflicts = ThreeWayMerge.findConflicts(BASE, ours, theirs);
+        assertEquals(1, conflicts.size());
+        assertEquals(2, conflicts.get(0).getBasePosition());
+        assertEquals(Arrays.asList("ccc"), conflicts.get(0).getBase());
+
+        final List<MergeChunk<String>> chunks = ThreeWayMerge.merge(BASE, ours, theirs);
+        assertEquals(Arrays.asList("aaa", "bbb", "<<<<<<<", "ours", "=======", "theirs", ">>>>>>>", "ddd", "eee", "xxx"),
+                ThreeWayMerge.toLines(chunks, "<<<<<<<", "=======", ">>>>>>>"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.difflib.patch;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Test;
+
+public class CompactPatchTest {
+
+    @Test
+    public void testRoundTrip() throws DiffException, PatchFailedException {
+        final List<String> original = Arrays.asList("aaa", "bbb", "ccc", "ddd");
+        final List<String> revised = Arrays.asList("new", "aaa", "bxb", "ccc");
+        final Patch<String> patch = DiffUtils.diff(original, revised);
+
+        final CompactPatch compact = CompactPatch.of(patch, new LinePool());
+        assertEquals(patch.getDeltas(), compact.toPatch().getDeltas());
+        assertEquals(revised, compact.applyTo(original));
+    }
+
+    @Test
+    public void testSharedLines() throws DiffException {
+        final LinePool pool = new LinePool();
+        final List<String> original = Arrays.asList("aaa", "bbb", "ccc");
+        final CompactPatch first = CompactPatch.of(DiffUtils.diff(original, Arrays.asList("aaa", "xxx", "ccc")), pool);
+        final CompactPatch second = CompactPatch.of(DiffUtils.diff(original, Arrays.asList("aaa", "xxx", "ccc")), pool);
+        final CompactPatch third = CompactPatch.of(DiffUtils.diff(original, Arrays.asList("aaa", "yyy", "ccc")), pool);
+
+        assertEquals(3, pool.size());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, third);
+    }
+
+    @Test
+    public void testLinePool() {
+        final LinePool pool = new LinePool();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, pool.intern("line" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, pool.intern("line" + i));
+            assertEquals("line" + i, pool.get(i));
+        }
+        assertEquals(1000, pool.size());
+    }
+}
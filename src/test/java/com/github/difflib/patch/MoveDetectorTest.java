@@ -0,0 +1,77 @@
+package com.github.difflib.patch;
+
+import com.github.difflib.BinaryPatchUtils;
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class MoveDetectorTest {
+
+    @Test
+    public void testMovedBlock() throws DiffException, PatchFailedException {
+        final List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        final List<String> revised = Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e");
+
+        final Patch<String> patch = DiffUtils.diffWithMoves(original, revised, 3);
+        assertEquals(1, patch.getDeltas().size());
+        final MoveDelta<String> move = (MoveDelta<String>) patch.getDeltas().get(0);
+        assertEquals(DeltaType.MOVE, move.getType());
+        assertEquals(3, move.getOriginal().size());
+
+        assertEquals(revised, patch.applyTo(original));
+        assertEquals(original, patch.restore(revised));
+
+        final List<String> target = new ArrayList<>(original);
+        move.applyTo(target);
+        assertEquals(revised, target);
+        move.restore(target);
+        assertEquals(original, target);
+    }
+
+    @Test
+    public void testMovedBlockWithinChanges() throws DiffException, PatchFailedException {
+        final List<String> original = Arrays.asList("a", "x1", "x2", "x3", "b", "c", "d", "y");
+        final List<String> revised = Arrays.asList("a", "b", "c", "new", "x1", "x2", "x3", "d", "z");
+
+        final Patch<String> patch = DiffUtils.diffWithMoves(original, revised, 2);
+        assertTrue(patch.getDeltas().stream().anyMatch(delta -> delta.getType() == DeltaType.MOVE));
+        assertEquals(revised, patch.applyTo(original));
+        assertEquals(original, patch.restore(revised));
+    }
+
+    @Test
+    public void testRandomMoves() throws DiffException, PatchFailedException {
+        final Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            final List<String> original = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                original.add("line" + random.nextInt(15));
+            }
+            final List<String> revised = new ArrayList<>(original);
+            for (int edit = random.nextInt(4); edit >= 0; edit--) {
+                final int from = random.nextInt(revised.size());
+                final int to = Math.min(revised.size(), from + 1 + random.nextInt(8));
+                final List<String> block = new ArrayList<>(revised.subList(from, to));
+                revised.subList(from, to).clear();
+                if (random.nextBoolean()) {
+                    block.add("inserted" + random.nextInt(3));
+                }
+                revised.addAll(random.nextInt(revised.size() + 1), block);
+            }
+
+            final Patch<String> patch = DiffUtils.diffWithMoves(original, revised, 2);
+            assertEquals(revised, patch.applyTo(original));
+            assertEquals(original, patch.restore(revised));
+
+            final Patch<String> decoded = BinaryPatchUtils.decode(BinaryPatchUtils.encode(patch, false));
+            assertEquals(revised, decoded.applyTo(original));
+            assertEquals(original, decoded.restore(revised));
+        }
+    }
+}
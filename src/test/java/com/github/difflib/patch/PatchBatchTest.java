@@ -0,0 +1,62 @@
+package com.github.difflib.patch;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PatchBatchTest {
+
+    @Test
+    public void testApplyToManyTargets() throws DiffException, InterruptedException {
+        final Patch<String> patch = DiffUtils.diff(Arrays.asList("aaa", "bbb", "ccc"), Arrays.asList("aaa", "xxx", "ccc"));
+        final List<List<String>> targets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            targets.add(Arrays.asList("aaa", i % 10 == 0 ? "yyy" : "bbb", "ccc", "host" + i));
+        }
+
+        final List<BatchPatchResult<String>> results = PatchBatch.applyTo(patch, targets);
+        assertEquals(targets.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BatchPatchResult<String> result = results.get(i);
+            assertEquals(i, result.getIndex());
+            if (i % 10 == 0) {
+                assertFalse(result.isSuccess());
+                assertNotNull(result.getFailure());
+            } else {
+                assertTrue(result.isSuccess());
+                assertEquals(Arrays.asList("aaa", "xxx", "ccc", "host" + i), result.getResult());
+            }
+        }
+    }
+
+    @Test
+    public void testApplyPatchesToTargets() throws DiffException, InterruptedException {
+        final List<List<String>> originals = new ArrayList<>();
+        final List<List<String>> revised = new ArrayList<>();
+        final List<Patch<String>> patches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            originals.add(Arrays.asList("file" + i, "aaa", "bbb"));
+            revised.add(Arrays.asList("file" + i, "aaa", "line" + i));
+            patches.add(DiffUtils.diff(originals.get(i), revised.get(i)));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<BatchPatchResult<String>> results = PatchBatch.applyTo(patches, originals, executor);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(revised.get(i), results.get(i).getResult());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
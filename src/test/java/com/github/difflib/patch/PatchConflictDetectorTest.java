@@ -0,0 +1,84 @@
+package com.github.difflib.patch;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PatchConflictDetectorTest {
+
+    private static final List<String> BASE = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff", "ggg");
+
+    @Test
+    public void testNoConflicts() throws DiffException {
+        final List<Patch<String>> patches = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("xxx", "bbb", "ccc", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "ccc", "yyy", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff")));
+
+        assertTrue(PatchConflictDetector.findConflicts(patches, 0).isEmpty());
+    }
+
+    @Test
+    public void testOverlappingChanges() throws DiffException {
+        final List<Patch<String>> patches = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "xxx", "yyy", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff", "zzz")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "zzz", "ddd", "eee", "fff", "ggg")));
+
+        final List<PatchConflict> conflicts = PatchConflictDetector.findConflicts(patches, 0);
+        assertEquals(1, conflicts.size());
+        assertEquals(0, conflicts.get(0).getFirstPatch());
+        assertEquals(2, conflicts.get(0).getSecondPatch());
+    }
+
+    @Test
+    public void testInsertsAtSamePosition() throws DiffException {
+        final List<Patch<String>> patches = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "new1", "ccc", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "new2", "ccc", "ddd", "eee", "fff", "ggg")));
+
+        assertEquals(1, PatchConflictDetector.findConflicts(patches, 0).size());
+    }
+
+    @Test
+    public void testContextMargin() throws DiffException {
+        final List<Patch<String>> patches = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "xxx", "ccc", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "ccc", "yyy", "eee", "fff", "ggg")));
+
+        assertTrue(PatchConflictDetector.findConflicts(patches, 0).isEmpty());
+        assertTrue(PatchConflictDetector.findConflicts(patches, 1).isEmpty());
+        assertEquals(1, PatchConflictDetector.findConflicts(patches, 2).size());
+    }
+
+    @Test
+    public void testInsertTouchingChange() throws DiffException {
+        final List<Patch<String>> before = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "new", "ccc", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "xxx", "ddd", "eee", "fff", "ggg")));
+        final List<Patch<String>> behind = Arrays.asList(
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "ccc", "new", "ddd", "eee", "fff", "ggg")),
+                DiffUtils.diff(BASE, Arrays.asList("aaa", "bbb", "xxx", "ddd", "eee", "fff", "ggg")));
+
+        // no line lies between the insertion and the changed line
+        assertTrue(PatchConflictDetector.findConflicts(before, 0).isEmpty());
+        assertTrue(PatchConflictDetector.findConflicts(behind, 0).isEmpty());
+        assertEquals(1, PatchConflictDetector.findConflicts(before, 1).size());
+        assertEquals(1, PatchConflictDetector.findConflicts(behind, 1).size());
+    }
+
+    @Test
+    public void testConflictWithMove() throws DiffException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        Patch<String> move = DiffUtils.diffWithMoves(original, Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e"), 3);
+        Patch<String> inBlock = DiffUtils.diff(original, Arrays.asList("a", "b", "c", "d", "e", "f", "x", "h"));
+        Patch<String> elsewhere = DiffUtils.diff(original, Arrays.asList("a", "b", "c", "x", "e", "f", "g", "h"));
+
+        assertEquals(1, PatchConflictDetector.findConflicts(Arrays.asList(move, inBlock), 0).size());
+        assertEquals(0, PatchConflictDetector.findConflicts(Arrays.asList(move, elsewhere), 0).size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.difflib.patch;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class PatchIndexTest {
+
+    private static final List<String> ORIGINAL = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee", "fff", "ggg");
+    private static final List<String> REVISED = Arrays.asList("new", "aaa", "bxb", "ccc", "fff", "ggg", "hhh");
+
+    @Test
+    public void testLineMapping() throws DiffException {
+        final PatchIndex<String> index = new PatchIndex<>(DiffUtils.diff(ORIGINAL, REVISED));
+        for (int line = 0; line < ORIGINAL.size(); line++) {
+            int revisedLine = index.toRevised(line);
+            if (revisedLine >= 0) {
+                assertEquals(ORIGINAL.get(line), REVISED.get(revisedLine));
+                assertEquals(line, index.toOriginal(revisedLine));
+            }
+        }
+        assertEquals(1, index.toRevised(0));
+        assertEquals(-1, index.toRevised(1));
+        assertEquals(-1, index.toRevised(3));
+        assertEquals(4, index.toRevised(5));
+        assertEquals(-1, index.toOriginal(0));
+        assertEquals(-1, index.toOriginal(6));
+    }
+
+    @Test
+    public void testFindDeltas() throws DiffException {
+        final Patch<String> patch = DiffUtils.diff(ORIGINAL, REVISED);
+        final List<Delta<String>> deltas = patch.getDeltas();
+        final PatchIndex<String> index = new PatchIndex<>(patch);
+
+        assertEquals(Arrays.asList(deltas.get(0), deltas.get(1)), index.findOriginalDeltas(0, 2));
+        assertEquals(Collections.singletonList(deltas.get(2)), index.findOriginalDeltas(4, 5));
+        assertEquals(Collections.emptyList(), index.findOriginalDeltas(2, 3));
+        assertEquals(Collections.singletonList(deltas.get(3)), index.findOriginalDeltas(6, 7));
+        assertEquals(Collections.singletonList(deltas.get(0)), index.findRevisedDeltas(0, 1));
+        assertEquals(Collections.singletonList(deltas.get(2)), index.findRevisedDeltas(4, 4));
+    }
+
+    @Test
+    public void testLineMappingWithMoves() throws DiffException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        List<String> revised = Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e");
+        PatchIndex<String> index = new PatchIndex<>(DiffUtils.diffWithMoves(original, revised, 3));
+
+        int[] toRevised = new int[original.size()];
+        for (int i = 0; i < original.size(); i++) {
+            toRevised[i] = index.toRevised(i);
+            assertEquals(original.get(i), revised.get(toRevised[i]));
+            assertEquals(i, index.toOriginal(toRevised[i]));
+        }
+        assertArrayEquals(new int[]{0, 4, 5, 6, 7, 1, 2, 3}, toRevised);
+    }
+}
@@ -2,9 +2,13 @@ package com.github.difflib.patch;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.algorithm.DiffException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
 
@@ -48,4 +52,201 @@ public class PatchTest {
             fail(e.getMessage());
         }
     }
+
+    @Test
+    public void testPatch_FuzzyWithoutDrift() throws DiffException, PatchFailedException {
+        final List<String> from = Arrays.asList("aaa", "bbb", "ccc", "ddd");
+        final List<String> to = Arrays.asList("aaa", "bxb", "ccc", "ddd", "eee");
+
+        final FuzzyPatchResult<String> result = DiffUtils.diff(from, to).applyFuzzy(from, 0);
+        assertEquals(to, result.getResult());
+        assertTrue(result.isExact());
+    }
+
+    @Test
+    public void testPatch_FuzzyWithOffset() throws DiffException, PatchFailedException {
+        final List<String> from = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee");
+        final List<String> to = Arrays.asList("aaa", "bxb", "ccc", "ddd", "exe");
+        final List<String> drifted = Arrays.asList("new1", "new2", "aaa", "bbb", "ccc", "new3", "ddd", "eee");
+
+        final Patch<String> patch = DiffUtils.diff(from, to);
+        final FuzzyPatchResult<String> result = patch.applyFuzzy(drifted, 0);
+        assertEquals(Arrays.asList("new1", "new2", "aaa", "bxb", "ccc", "new3", "ddd", "exe"), result.getResult());
+        assertEquals(2, result.getOffset(0));
+        assertEquals(3, result.getOffset(1));
+        assertFalse(result.isExact());
+    }
+
+    @Test
+    public void testPatch_FuzzyIgnoresContext() throws PatchFailedException {
+        final Patch<String> patch = new Patch<>();
+        patch.addDelta(new ChangeDelta<>(new Chunk<>(1, Arrays.asList("ctx1", "old", "ctx2")),
+                new Chunk<>(1, Arrays.asList("ctx1", "new", "ctx2"))));
+        final List<String> drifted = Arrays.asList("aaa", "bbb", "other1", "old", "other2");
+
+        try {
+            patch.applyFuzzy(drifted, 0);
+            fail("patch should not apply without fuzz");
+        } catch (PatchFailedException e) {
+            // expected
+        }
+        final FuzzyPatchResult<String> result = patch.applyFuzzy(drifted, 1);
+        assertEquals(Arrays.asList("aaa", "bbb", "other1", "new", "other2"), result.getResult());
+        assertEquals(1, result.getFuzz(0));
+        assertEquals(1, result.getOffset(0));
+    }
+
+    @Test
+    public void testPatch_VerifyMismatch() throws DiffException {
+        final List<String> from = Arrays.asList("aaa", "bbb", "ccc", "ddd");
+        final List<String> to = Arrays.asList("aaa", "bxb", "cxc", "ddd");
+
+        final Patch<String> patch = DiffUtils.diff(from, to);
+        try {
+            patch.applyTo(Arrays.asList("aaa", "bbb", "ccx", "ddd"));
+            fail("patch should not apply");
+        } catch (PatchFailedException e) {
+            assertTrue(e.getMessage().contains("position 2"));
+        }
+        try {
+            patch.applyTo(Arrays.asList("aaa", "bbb"));
+            fail("patch should not apply");
+        } catch (PatchFailedException e) {
+            assertTrue(e.getMessage().contains("target size"));
+        }
+    }
+
+    @Test
+    public void testPatch_VerifyCollidingHashCodes() throws DiffException {
+        final Patch<String> patch = DiffUtils.diff(Arrays.asList("Aa", "tail"), Arrays.asList("X", "tail"));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        try {
+            patch.applyTo(Arrays.asList("BB", "tail"));
+            fail("patch should not apply");
+        } catch (PatchFailedException e) {
+            assertTrue(e.getMessage().contains("position 0"));
+        }
+    }
+
+    @Test
+    public void testChunkHash() {
+        assertEquals(new Chunk<>(1, Arrays.asList("aaa", "bbb")).getHash(),
+                new Chunk<>(1, Arrays.asList("aaa", "bbb")).getHash());
+        assertFalse(new Chunk<>(1, Arrays.asList("aaa", "bbb")).getHash()
+                == new Chunk<>(1, Arrays.asList("bbb", "aaa")).getHash());
+    }
+
+    @Test
+    public void testCompose() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee");
+        final List<String> v1 = Arrays.asList("aaa", "xxx", "ccc", "ddd", "eee", "fff");
+        final List<String> v2 = Arrays.asList("yyy", "xxx", "ccc", "eee", "fff");
+
+        final Patch<String> composed = Patch.compose(DiffUtils.diff(base, v1), DiffUtils.diff(v1, v2));
+        assertEquals(v2, composed.applyTo(base));
+        assertEquals(base, composed.restore(v2));
+    }
+
+    @Test
+    public void testComposeRevertedChange() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("aaa", "bbb", "ccc");
+        final List<String> v1 = Arrays.asList("aaa", "xxx", "ccc");
+
+        final Patch<String> composed = Patch.compose(DiffUtils.diff(base, v1), DiffUtils.diff(v1, base));
+        assertTrue(composed.getDeltas().isEmpty());
+    }
+
+    @Test
+    public void testComposeSeries() throws DiffException, PatchFailedException {
+        final Random random = new Random(4711);
+        final List<List<String>> versions = new ArrayList<>();
+        versions.add(randomText(random, 30));
+        for (int i = 0; i < 20; i++) {
+            versions.add(randomEdit(random, versions.get(i)));
+        }
+        final List<Patch<String>> patches = new ArrayList<>();
+        for (int i = 1; i < versions.size(); i++) {
+            patches.add(DiffUtils.diff(versions.get(i - 1), versions.get(i)));
+        }
+
+        final Patch<String> composed = Patch.compose(patches);
+        assertEquals(versions.get(versions.size() - 1), composed.applyTo(versions.get(0)));
+        assertEquals(versions.get(0), composed.restore(versions.get(versions.size() - 1)));
+    }
+
+    @Test
+    public void testTransform() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("aaa", "bbb", "ccc", "ddd", "eee");
+        final List<String> ours = Arrays.asList("new", "aaa", "bbb", "ccc", "eee");
+        final List<String> theirs = Arrays.asList("aaa", "bbb", "cxc", "ddd", "eee", "fff");
+
+        final Patch<String> oursPatch = DiffUtils.diff(base, ours);
+        final Patch<String> transformed = Patch.transform(DiffUtils.diff(base, theirs), oursPatch);
+        assertEquals(Arrays.asList("new", "aaa", "bbb", "cxc", "eee", "fff"),
+                transformed.applyTo(oursPatch.applyTo(base)));
+    }
+
+    @Test
+    public void testTransformIdenticalDelta() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("aaa", "bbb", "ccc");
+        final List<String> ours = Arrays.asList("aaa", "xxx", "ccc");
+        final List<String> theirs = Arrays.asList("aaa", "xxx", "ccc", "ddd");
+
+        final Patch<String> oursPatch = DiffUtils.diff(base, ours);
+        final Patch<String> transformed = Patch.transform(DiffUtils.diff(base, theirs), oursPatch);
+        assertEquals(1, transformed.getDeltas().size());
+        assertEquals(theirs, transformed.applyTo(ours));
+    }
+
+    @Test
+    public void testTransformIdenticalDeltaRoundTrip() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("a", "b", "c");
+        final List<String> ours = Arrays.asList("a", "x", "y", "c");
+        final List<String> theirs = Arrays.asList("a", "x", "y", "c", "d");
+
+        final Patch<String> transformed = Patch.transform(DiffUtils.diff(base, theirs), DiffUtils.diff(base, ours));
+        final List<String> merged = transformed.applyTo(ours);
+        assertEquals(theirs, merged);
+        assertEquals(ours, transformed.restore(merged));
+    }
+
+    @Test(expected = PatchConflictException.class)
+    public void testTransformConflict() throws DiffException, PatchFailedException {
+        final List<String> base = Arrays.asList("aaa", "bbb", "ccc");
+        final List<String> ours = Arrays.asList("aaa", "xxx", "ccc");
+        final List<String> theirs = Arrays.asList("aaa", "yyy", "ccc");
+
+        Patch.transform(DiffUtils.diff(base, theirs), DiffUtils.diff(base, ours));
+    }
+
+    private static List<String> randomText(Random random, int size) {
+        final List<String> text = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            text.add("line" + random.nextInt(10));
+        }
+        return text;
+    }
+
+    private static List<String> randomEdit(Random random, List<String> text) {
+        final List<String> result = new ArrayList<>(text);
+        for (int edits = random.nextInt(4); edits >= 0; edits--) {
+            final int position = random.nextInt(result.size() + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    result.add(position, "line" + random.nextInt(10));
+                    break;
+                case 1:
+                    if (position < result.size()) {
+                        result.remove(position);
+                    }
+                    break;
+                default:
+                    if (position < result.size()) {
+                        result.set(position, "line" + random.nextInt(10));
+                    }
+                    break;
+            }
+        }
+        return result;
+    }
 }
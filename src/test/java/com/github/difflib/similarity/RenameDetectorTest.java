@@ -0,0 +1,111 @@
+package com.github.difflib.similarity;
+
+import com.github.difflib.algorithm.DiffException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class RenameDetectorTest {
+
+    @Test
+    public void testDetectRenames() throws DiffException {
+        Random random = new Random(3);
+        Map<String, List<String>> removed = new HashMap<>();
+        Map<String, List<String>> added = new HashMap<>();
+        for (int file = 0; file < 300; file++) {
+            List<String> lines = randomLines(random, 40);
+            removed.put("old/file" + file, lines);
+            if (file % 3 == 0) {
+                // renamed with a few edits
+                List<String> edited = new ArrayList<>(lines);
+                edited.set(5, "edited");
+                edited.remove(20);
+                edited.add("appended");
+                added.put("new/file" + file, edited);
+            } else {
+                added.put("new/unrelated" + file, randomLines(random, 40));
+            }
+        }
+
+        List<FileRename> renames = new RenameDetector().detect(removed, added);
+        assertEquals(100, renames.size());
+        for (FileRename rename : renames) {
+            assertEquals(rename.getFromPath().replace("old/", "new/"), rename.getToPath());
+            assertFalse(rename.isCopy());
+            assertTrue(rename.getSimilarity() >= 0.9);
+        }
+    }
+
+    @Test
+    public void testDetectCopies() throws DiffException {
+        Map<String, List<String>> removed = new HashMap<>();
+        Map<String, List<String>> added = new HashMap<>();
+        Map<String, List<String>> unchanged = new HashMap<>();
+        List<String> lines = randomLines(new Random(5), 20);
+        removed.put("a.txt", lines);
+        added.put("b.txt", lines);
+        added.put("c.txt", lines);
+        unchanged.put("d.txt", Arrays.asList("x", "y", "z"));
+        added.put("e.txt", Arrays.asList("x", "y", "z", "w"));
+
+        List<FileRename> renames = new RenameDetector().detect(removed, added, unchanged);
+        assertEquals(3, renames.size());
+        assertEquals("[rename a.txt to b.txt, similarity: 1.0]", renames.get(0).toString());
+        assertEquals("[copy a.txt to c.txt, similarity: 1.0]", renames.get(1).toString());
+        assertEquals("[copy d.txt to e.txt, similarity: 0.75]", renames.get(2).toString());
+    }
+
+    @Test
+    public void testRecallNearThreshold() throws DiffException {
+        assertTrue(detectEdited(0.5) >= 196);
+        assertTrue(detectEdited(0.55) >= 198);
+        assertEquals(0, detectEdited(0.45));
+    }
+
+    @Test
+    public void testBandsAndRows() {
+        assertEquals(1.0 / 3, RenameDetector.toJaccard(0.5), 1e-9);
+        assertArrayEquals(new int[]{40, 2}, RenameDetector.bandsAndRows(1.0 / 3));
+    }
+
+    /**
+     * Renames 200 files of 100 lines with the given fraction of unchanged lines and counts the detected renames.
+     */
+    private static int detectEdited(double similarity) throws DiffException {
+        Random random = new Random(11);
+        Map<String, List<String>> removed = new HashMap<>();
+        Map<String, List<String>> added = new HashMap<>();
+        for (int file = 0; file < 200; file++) {
+            List<String> lines = randomLines(random, 100);
+            List<String> edited = new ArrayList<>(lines);
+            List<Integer> positions = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                positions.add(i);
+            }
+            Collections.shuffle(positions, random);
+            for (int i = 0; i < Math.round(lines.size() * (1 - similarity)); i++) {
+                edited.set(positions.get(i), "edited " + random.nextInt(100000));
+            }
+            removed.put("old/file" + file, lines);
+            added.put("new/file" + file, edited);
+        }
+        return new RenameDetector().detect(removed, added).size();
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + random.nextInt(100000));
+        }
+        return lines;
+    }
+}
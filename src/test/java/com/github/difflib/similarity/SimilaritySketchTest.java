@@ -0,0 +1,78 @@
+package com.github.difflib.similarity;
+
+import com.github.difflib.DiffUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class SimilaritySketchTest {
+
+    @Test
+    public void testEstimateSimilarity() {
+        // 600 common lines of 1000 distinct lines: Jaccard similarity 0.6
+        List<String> original = lines(0, 800);
+        List<String> revised = lines(200, 1000);
+
+        assertEquals(0.6, DiffUtils.estimateSimilarity(original, revised), 0.15);
+        assertEquals(1.0, DiffUtils.estimateSimilarity(original, original), 0.0);
+        assertEquals(0.6, SimilaritySketch.of(original, 1, 512, 2)
+                .estimateSimilarity(SimilaritySketch.of(revised, 1, 512, 2)), 0.15);
+        assertEquals(0.6, SimilaritySketch.of(original, 3, 256, 8)
+                .estimateSimilarity(SimilaritySketch.of(revised, 3, 256, 8)), 0.15);
+        assertEquals(0.0, SimilaritySketch.of(lines(0, 500), 1, 256, 16)
+                .estimateSimilarity(SimilaritySketch.of(lines(500, 1000), 1, 256, 16)), 0.05);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        SimilaritySketch sketch = SimilaritySketch.of(lines(0, 100), 2, 64, 4);
+        SimilaritySketch other = SimilaritySketch.of(lines(50, 150), 2, 64, 4);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(sketch);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            SimilaritySketch read = (SimilaritySketch) in.readObject();
+            assertEquals(sketch.estimateSimilarity(other), read.estimateSimilarity(other), 0.0);
+        }
+
+        byte[] compact = sketch.toBytes();
+        assertEquals(12 + 32, compact.length);
+        assertEquals(sketch.estimateSimilarity(other), SimilaritySketch.fromBytes(compact).estimateSimilarity(other), 0.0);
+    }
+
+    @Test
+    public void testFromMalformedBytes() {
+        byte[] compact = SimilaritySketch.of(lines(0, 100), 2, 64, 4).toBytes();
+        byte[] zeroBits = compact.clone();
+        zeroBits[7] = 0;
+        byte[] threeBits = compact.clone();
+        threeBits[7] = 3;
+        for (byte[] malformed : Arrays.asList(Arrays.copyOf(compact, 8), Arrays.copyOf(compact, compact.length - 1),
+                zeroBits, threeBits, new byte[12])) {
+            try {
+                SimilaritySketch.fromBytes(malformed);
+                fail("malformed sketch accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static List<String> lines(int from, int to) {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            lines.add("line " + i);
+        }
+        return lines;
+    }
+}
@@ -1,14 +1,23 @@
 package com.github.difflib.text;
 
+import com.github.difflib.DiffUtils;
 import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Patch;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -315,4 +324,118 @@ public class DiffRowGeneratorTest {
             }
         }
     }
+
+    @Test
+    public void testIterateDiffRows() throws DiffException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        List<String> revised = Arrays.asList("x", "b", "c", "dd", "e", "f", "h", "i");
+        Patch<String> patch = DiffUtils.diff(original, revised);
+
+        for (boolean inline : new boolean[]{false, true}) {
+            DiffRowGenerator generator = DiffRowGenerator.create()
+                    .showInlineDiffs(inline)
+                    .build();
+            List<DiffRow> expected = generator.generateDiffRows(original, patch);
+
+            List<DiffRow> iterated = new ArrayList<>();
+            Iterator<DiffRow> iterator = generator.iterateDiffRows(original, patch);
+            while (iterator.hasNext()) {
+                iterated.add(iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+            assertEquals(expected, iterated);
+
+            assertEquals(expected, StreamSupport.stream(generator.spliterateDiffRows(original, patch), false)
+                    .collect(toList()));
+        }
+    }
+
+    @Test
+    public void testGeneratorWithContextSize() throws DiffException {
+        List<String> original = Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+        List<String> revised = Arrays.asList("1", "2", "3", "4", "x", "6", "7", "8", "9", "10", "11");
+        Patch<String> patch = DiffUtils.diff(original, revised);
+
+        DiffRowGenerator generator = DiffRowGenerator.create()
+                .contextSize(1)
+                .build();
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+        print(rows);
+
+        assertEquals(Arrays.asList(
+                new DiffRow(DiffRow.Tag.SKIPPED, "", "", 3),
+                new DiffRow(DiffRow.Tag.EQUAL, "4", "4"),
+                new DiffRow(DiffRow.Tag.CHANGE, "5", "x"),
+                new DiffRow(DiffRow.Tag.EQUAL, "6", "6"),
+                new DiffRow(DiffRow.Tag.SKIPPED, "", "", 3),
+                new DiffRow(DiffRow.Tag.EQUAL, "10", "10"),
+                new DiffRow(DiffRow.Tag.INSERT, "", "11")), rows);
+
+        List<DiffRow> iterated = new ArrayList<>();
+        generator.iterateDiffRows(original, patch).forEachRemaining(iterated::add);
+        assertEquals(rows, iterated);
+    }
+
+    @Test
+    public void testGeneratorWithContextSizeKeepsSingleLine() throws DiffException {
+        List<String> original = Arrays.asList("1", "2", "3", "4", "5", "6", "7");
+        List<String> revised = Arrays.asList("1", "2", "3", "x", "5", "6", "7");
+        Patch<String> patch = DiffUtils.diff(original, revised);
+
+        DiffRowGenerator generator = DiffRowGenerator.create()
+                .contextSize(2)
+                .build();
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+
+        assertEquals(7, rows.size());
+        assertEquals(new DiffRow(DiffRow.Tag.EQUAL, "1", "1"), rows.get(0));
+        assertEquals(rows, generator.createRowIndex(original, patch).getRows(0, 7));
+    }
+
+    @Test
+    public void testGeneratorWithContextSizeWithoutChanges() throws DiffException {
+        List<String> text = Arrays.asList("1", "2", "3");
+        DiffRowGenerator generator = DiffRowGenerator.create()
+                .contextSize(3)
+                .build();
+        List<DiffRow> rows = generator.generateDiffRows(text, text);
+
+        assertEquals(1, rows.size());
+        assertEquals(DiffRow.Tag.SKIPPED, rows.get(0).getTag());
+        assertEquals(3, rows.get(0).getSkippedLines());
+    }
+
+    @Test
+    public void testGeneratorWithMoves() throws DiffException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+        Patch<String> patch = DiffUtils.diffWithMoves(original, Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e"), 3);
+        DiffRowGenerator generator = DiffRowGenerator.create().build();
+
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+        List<String> oldLines = new ArrayList<>();
+        List<String> newLines = new ArrayList<>();
+        for (DiffRow row : rows) {
+            if (row.getTag() != DiffRow.Tag.INSERT) {
+                oldLines.add(row.getOldLine());
+            }
+            if (row.getTag() != DiffRow.Tag.DELETE) {
+                newLines.add(row.getNewLine());
+            }
+        }
+        assertEquals(original, oldLines);
+        assertEquals(Arrays.asList("a", "f", "g", "h", "b", "c", "d", "e"), newLines);
+        assertEquals(rows, generator.createRowIndex(original, patch).getRows(0, rows.size()));
+    }
+
+    @Test
+    public void testDeserializeDiffRowOfPreviousVersion() throws IOException, ClassNotFoundException {
+        // a DiffRow serialized before skipped rows were added
+        byte[] serialized = Base64.getDecoder().decode("rO0ABXNyAB9jb20uZ2l0aHViLmRpZmZsaWIudGV4dC5EaWZmUm931qi3fdGFuCEC"
+                + "AANMAAduZXdMaW5ldAASTGphdmEvbGFuZy9TdHJpbmc7TAAHb2xkTGluZXEAfgABTAADdGFndAAlTGNvbS9naXRodWIvZGlmZmxp"
+                + "Yi90ZXh0L0RpZmZSb3ckVGFnO3hwdAADbmV3dAADb2xkfnIAI2NvbS5naXRodWIuZGlmZmxpYi50ZXh0LkRpZmZSb3ckVGFnAAAA"
+                + "AAAAAAASAAB4cgAOamF2YS5sYW5nLkVudW0AAAAAAAAAABIAAHhwdAAGQ0hBTkdF");
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            assertEquals(new DiffRow(DiffRow.Tag.CHANGE, "old", "new"), in.readObject());
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package com.github.difflib.text;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffException;
+import com.github.difflib.patch.Patch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class DiffRowIndexTest {
+
+    @Test
+    public void testGetRows() throws DiffException {
+        List<String> original = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        List<String> revised = Arrays.asList("x", "b", "c", "dd", "e", "f", "h", "i");
+        Patch<String> patch = DiffUtils.diff(original, revised);
+        DiffRowGenerator generator = DiffRowGenerator.create().showInlineDiffs(true).build();
+
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+        DiffRowIndex index = generator.createRowIndex(original, patch);
+
+        assertEquals(rows.size(), index.size());
+        assertEquals(rows, index.getRows(0, index.size()));
+        assertEquals(rows.subList(2, 7), index.getRows(2, 7));
+        assertEquals(0, index.getRows(3, 3).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetRowsOutOfRange() throws DiffException {
+        List<String> original = Arrays.asList("a", "b");
+        DiffRowGenerator generator = DiffRowGenerator.create().build();
+        generator.createRowIndex(original, DiffUtils.diff(original, Arrays.asList("a"))).getRows(0, 3);
+    }
+
+    @Test
+    public void testRandomWindows() throws DiffException {
+        Random random = new Random(4711);
+        DiffRowGenerator[] generators = {
+            DiffRowGenerator.create().build(),
+            DiffRowGenerator.create().showInlineDiffs(true).build(),
+            DiffRowGenerator.create().showInlineDiffs(true).mergeOriginalRevised(true).build(),
+            DiffRowGenerator.create().showInlineDiffs(true).inlineDiffByWord(true).columnWidth(5).build(),
+            DiffRowGenerator.create().contextSize(0).build(),
+            DiffRowGenerator.create().showInlineDiffs(true).contextSize(2).build()
+        };
+        for (int round = 0; round < 200; round++) {
+            List<String> original = randomText(random);
+            List<String> revised = randomText(random);
+            Patch<String> patch = DiffUtils.diff(original, revised);
+            for (DiffRowGenerator generator : generators) {
+                List<DiffRow> rows = generator.generateDiffRows(original, patch);
+                DiffRowIndex index = generator.createRowIndex(original, patch);
+                assertEquals(rows.size(), index.size());
+                for (int i = 0; i < 5; i++) {
+                    int from = random.nextInt(rows.size() + 1);
+                    int to = from + random.nextInt(rows.size() - from + 1);
+                    assertEquals(rows.subList(from, to), index.getRows(from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPagingThroughInlineDiffs() throws DiffException {
+        List<String> original = new ArrayList<>();
+        List<String> revised = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            original.add("line " + i);
+            revised.add(i % 10 == 0 ? "line " + i : "changed line " + i);
+        }
+        Patch<String> patch = DiffUtils.diff(original, revised);
+        DiffRowGenerator generator = DiffRowGenerator.create().showInlineDiffs(true).mergeOriginalRevised(true).build();
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+        DiffRowIndex index = generator.createRowIndex(original, patch);
+        for (int from = 0; from < index.size(); from += 3) {
+            int to = Math.min(from + 3, index.size());
+            assertEquals(rows.subList(from, to), index.getRows(from, to));
+        }
+        assertEquals(rows, index.getRows(0, index.size()));
+    }
+
+    @Test
+    public void testConcurrentWindows() throws DiffException, InterruptedException, ExecutionException {
+        Random random = new Random(4711);
+        List<String> original = new ArrayList<>();
+        List<String> revised = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            original.add("line " + i);
+            revised.add(random.nextInt(3) == 0 ? "changed line " + i : "line " + i);
+        }
+        Patch<String> patch = DiffUtils.diff(original, revised);
+        DiffRowGenerator generator = DiffRowGenerator.create().showInlineDiffs(true).build();
+        List<DiffRow> rows = generator.generateDiffRows(original, patch);
+        DiffRowIndex index = generator.createRowIndex(original, patch);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> pages = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                pages.add(executor.submit(() -> {
+                    Random windows = new Random(seed);
+                    for (int i = 0; i < 500; i++) {
+                        int from = windows.nextInt(index.size());
+                        int to = Math.min(index.size(), from + windows.nextInt(20));
+                        assertEquals(rows.subList(from, to), index.getRows(from, to));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> page : pages) {
+                page.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> randomText(Random random) {
+        List<String> lines = new ArrayList<>();
+        int size = random.nextInt(30);
+        for (int i = 0; i < size; i++) {
+            lines.add(random.nextInt(4) == 0 ? "" : "line " + random.nextInt(6) + " x" + random.nextInt(3));
+        }
+        return lines;
+    }
+}